@@ -0,0 +1,92 @@
+package com.example.demo.bench;
+
+import com.example.demo.sim.Door;
+import com.example.demo.sim.EnemyStore;
+import com.example.demo.sim.InputState;
+import com.example.demo.sim.Platform;
+import com.example.demo.sim.ProjectilePool;
+import com.example.demo.sim.Spike;
+import com.example.demo.sim.World;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds benchmark worlds by laying copies of a built-in level side by side, so entity
+ * counts scale from the shipped layouts (copies = 1) up to tens of thousands.
+ */
+final class BenchmarkWorlds {
+    static final double TILE_WIDTH = 1920;
+    static final double TILE_HEIGHT = 1080;
+
+    // Above every platform and enemy in both levels, so projectiles up here never hit
+    // anything and every tick pays for the full projectile-vs-enemy scan
+    static final double PROJECTILE_LANE_Y = 10;
+    static final int MAX_PROJECTILES = 100_000;
+
+    static final InputState IDLE = new InputState() {
+        @Override
+        public boolean isMoveLeft() {
+            return false;
+        }
+
+        @Override
+        public boolean isMoveRight() {
+            return false;
+        }
+
+        @Override
+        public boolean isJump() {
+            return false;
+        }
+
+        @Override
+        public boolean isDash() {
+            return false;
+        }
+    };
+
+    private BenchmarkWorlds() {
+    }
+
+    static World create(int level, int copies) {
+        World template = new World();
+        template.loadLevel(level);
+
+        List<Platform> platforms = new ArrayList<>();
+        List<Spike> spikes = new ArrayList<>();
+        EnemyStore enemies = new EnemyStore();
+
+        for (int copy = 0; copy < copies; copy++) {
+            double offset = copy * TILE_WIDTH;
+            for (Platform p : template.getPlatforms()) {
+                platforms.add(new Platform(p.x + offset, p.y, p.width, p.height));
+            }
+            for (Spike s : template.getSpikes()) {
+                spikes.add(new Spike(s.x + offset, s.y, s.width, s.height));
+            }
+            EnemyStore e = template.getEnemies();
+            for (int i = 0; i < e.size(); i++) {
+                enemies.add(e.getX(i) + offset, e.getY(i), e.getMinX(i) + offset, e.getMaxX(i) + offset);
+            }
+        }
+
+        Door templateDoor = template.getDoor();
+        Door door = new Door(templateDoor.x + (copies - 1) * TILE_WIDTH, templateDoor.y,
+                templateDoor.width, templateDoor.height);
+
+        World world = new World();
+        world.setProjectileCapacity(MAX_PROJECTILES);
+        world.loadLevel(level, copies * TILE_WIDTH, TILE_HEIGHT, platforms.toArray(new Platform[0]), spikes.toArray(new Spike[0]), enemies, door);
+        return world;
+    }
+
+    static void topUpProjectiles(World world, int count) {
+        ProjectilePool projectiles = world.getProjectiles();
+        double spacing = world.getWidth() / Math.max(count, 1);
+        while (projectiles.size() < count) {
+            int i = projectiles.size();
+            projectiles.spawn(i * spacing, PROJECTILE_LANE_Y, true);
+        }
+    }
+}
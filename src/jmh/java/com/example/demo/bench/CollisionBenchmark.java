@@ -0,0 +1,90 @@
+package com.example.demo.bench;
+
+import com.example.demo.sim.EnemyStore;
+import com.example.demo.sim.Platform;
+import com.example.demo.sim.Player;
+import com.example.demo.sim.ProjectilePool;
+import com.example.demo.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The individual collision loops inside a tick, measured in isolation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    private static final double TICK = 1.0 / 60;
+
+    @Param({"1", "2"})
+    public int level;
+
+    @Param({"1", "100", "4000"})
+    public int copies;
+
+    @Param({"100", "1000"})
+    public int projectiles;
+
+    private World world;
+    private Player player;
+    private Platform[] platforms;
+    private EnemyStore enemies;
+    private int[] firstHits;
+    private ProjectilePool projectilePool;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = BenchmarkWorlds.create(level, copies);
+        BenchmarkWorlds.topUpProjectiles(world, projectiles);
+        player = world.getPlayer();
+        platforms = world.getPlatforms();
+        enemies = world.getEnemies();
+        projectilePool = world.getProjectiles();
+        firstHits = new int[projectilePool.getCapacity()];
+    }
+
+    /**
+     * Player.update against every platform in the level.
+     */
+    @Benchmark
+    public Player playerUpdate() {
+        player.update(TICK, platforms, world.getWidth(), world.getHeight());
+        return player;
+    }
+
+    /**
+     * Every projectile, swept over one tick's move, against every enemy via the bulk
+     * EnemyStore query.
+     * The projectiles are in an empty lane, so nothing is hit and nothing changes.
+     */
+    @Benchmark
+    public int[] projectileVsEnemies() {
+        enemies.firstHits(projectilePool, TICK, firstHits);
+        return firstHits;
+    }
+
+    /**
+     * One patrol step for every enemy in the level.
+     */
+    @Benchmark
+    public EnemyStore enemyUpdate() {
+        enemies.update(TICK);
+        return enemies;
+    }
+}
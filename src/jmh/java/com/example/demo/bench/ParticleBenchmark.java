@@ -0,0 +1,80 @@
+package com.example.demo.bench;
+
+import com.example.demo.ParticleEmitter;
+import com.example.demo.ParticleLayer;
+import com.example.demo.ParticleSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of particle work: moving every particle and writing them into a 4K screen's
+ * buffer at the particle layer's scale. Particles that die are topped back up before
+ * each call, so the live count stays near the parameter; the 100k case has to fit well
+ * inside a 60 FPS frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParticleBenchmark {
+    private static final int SCREEN_WIDTH = 3840;
+    private static final int SCREEN_HEIGHT = 2160;
+
+    @Param({"1000", "100000"})
+    public int particles;
+
+    private ParticleSystem system;
+    private final int width = SCREEN_WIDTH / ParticleLayer.SCALE;
+    private final int height = SCREEN_HEIGHT / ParticleLayer.SCALE;
+    private final int[] pixels = new int[width * height];
+    private final int[] bounds = new int[4];
+    private int burst = 0;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        system = new ParticleSystem(1 << 17);
+        topUp();
+    }
+
+    // Bursts across the screen until the store holds the wanted count again
+    private void topUp() {
+        while (system.size() < particles) {
+            burst++;
+            double x = (burst * 7919 % 100) / 100.0 * SCREEN_WIDTH;
+            double y = (burst * 104729 % 100) / 100.0 * SCREEN_HEIGHT;
+            system.emit(ParticleEmitter.HIT_SPARKS, x, y, 0,
+                    Math.min(ParticleEmitter.HIT_SPARKS.getCount(), particles - system.size()));
+        }
+    }
+
+    @Benchmark
+    public ParticleSystem update() {
+        topUp();
+        system.update(1 / 60f);
+        return system;
+    }
+
+    @Benchmark
+    public int[] updateAndRasterize() {
+        topUp();
+        system.update(1 / 60f);
+        Arrays.fill(pixels, 0);
+        system.rasterize(pixels, width, height, 0, 0, ParticleLayer.SCALE, bounds);
+        return pixels;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.bench;
+
+import com.example.demo.sim.World;
+import com.example.demo.sim.WorldSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and restoring a world snapshot, against rebuilding level 1 from scratch the way
+ * restarting used to.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+    @Param({"1", "100", "4000"})
+    public int copies;
+
+    @Param({"0", "1000"})
+    public int projectiles;
+
+    private World world;
+    private final WorldSnapshot snapshot = new WorldSnapshot();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = BenchmarkWorlds.create(1, copies);
+        BenchmarkWorlds.topUpProjectiles(world, projectiles);
+        world.saveSnapshot(snapshot);
+    }
+
+    @Benchmark
+    public WorldSnapshot save() {
+        world.saveSnapshot(snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public World restore() {
+        world.restoreSnapshot(snapshot);
+        return world;
+    }
+
+    @Benchmark
+    public World reloadLevel() {
+        world.loadLevel(1);
+        return world;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.bench;
+
+import com.example.demo.sim.CollisionMode;
+import com.example.demo.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one full World.update tick (ns/tick) as the level is scaled up.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldTickBenchmark {
+    private static final double TICK = 1.0 / 60;
+
+    @Param({"1", "2"})
+    public int level;
+
+    @Param({"1", "100", "4000"})
+    public int copies;
+
+    @Param({"0", "100", "1000"})
+    public int projectiles;
+
+    @Param({"PAIRWISE", "SPATIAL_HASH"})
+    public CollisionMode collisionMode;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private World world;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = BenchmarkWorlds.create(level, copies);
+        world.setCollisionMode(collisionMode);
+        world.setParallel(parallel);
+        BenchmarkWorlds.topUpProjectiles(world, projectiles);
+    }
+
+    @Benchmark
+    public World tick() {
+        world.savePreviousState();
+        world.update(TICK, BenchmarkWorlds.IDLE);
+        // Projectiles that fly off the edge are replaced so the count stays constant
+        BenchmarkWorlds.topUpProjectiles(world, projectiles);
+        return world;
+    }
+}
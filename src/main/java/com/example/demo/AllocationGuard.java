@@ -0,0 +1,95 @@
+package com.example.demo;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that drawing a frame allocates nothing once the game has warmed up, using the
+ * JVM's count of bytes allocated by the current thread. Each frame is bracketed with
+ * {@link #begin()} and {@link #end(boolean)}; after the warmup frames, any measured frame
+ * whose count moved is reported as a failure.
+ *
+ * Canvas.snapshot allocates inside JavaFX, so what it allocates is left out of the count
+ * when the renderer's snapshots go through {@link #excludingSnapshots}; a frame that
+ * repaints the HUD panel is measured like any other. Frames that rebuild the static layer
+ * are skipped: they make new tiles, and only happen on level changes and quality changes.
+ *
+ * RenderAllocationTest runs the same check on the frame path without a display.
+ */
+public class AllocationGuard {
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final int warmupFrames;
+    private final int measureFrames;
+
+    private int frames = 0;
+    private long start;
+    private long excluded;
+    private int measured = 0;
+    private int skipped = 0;
+    private int allocatingFrames = 0;
+    private long totalBytes = 0;
+    private long maxBytes = 0;
+
+    public AllocationGuard(int warmupFrames, int measureFrames) {
+        this.warmupFrames = warmupFrames;
+        this.measureFrames = measureFrames;
+    }
+
+    public boolean isSupported() {
+        return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Wraps a snapshotter so that what each snapshot allocates is not counted against the
+     * frame it happens in.
+     */
+    Snapshotter excludingSnapshots(Snapshotter snapshotter) {
+        return (canvas, parameters, image) -> {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            try {
+                return snapshotter.snapshot(canvas, parameters, image);
+            } finally {
+                excluded += threads.getCurrentThreadAllocatedBytes() - before;
+            }
+        };
+    }
+
+    public void begin() {
+        excluded = 0;
+        start = threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Ends the frame started by the last {@link #begin()}; rebuiltStaticLayer says whether
+     * it made new static layer tiles, and so is not held to zero.
+     */
+    public void end(boolean rebuiltStaticLayer) {
+        long bytes = threads.getCurrentThreadAllocatedBytes() - start - excluded;
+        if (frames++ < warmupFrames || isFinished()) return;
+
+        if (rebuiltStaticLayer) {
+            skipped++;
+            return;
+        }
+        measured++;
+        if (bytes > 0) {
+            allocatingFrames++;
+            totalBytes += bytes;
+            maxBytes = Math.max(maxBytes, bytes);
+        }
+    }
+
+    public boolean isFinished() {
+        return measured >= measureFrames;
+    }
+
+    public boolean passed() {
+        return allocatingFrames == 0;
+    }
+
+    public String getSummary() {
+        return String.format("allocation guard: %d frames measured after %d warmup, %d skipped for static layer rebuilds; "
+                        + "%d allocated (%d bytes total, %d max)",
+                measured, warmupFrames, skipped, allocatingFrames, totalBytes, maxBytes);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo;
+
+/**
+ * The part of the world currently on screen. Follows a target point, normally the player,
+ * and never shows anything outside the world bounds. Positions are kept on whole pixels
+ * so cached scenery blits without seams.
+ */
+public class Camera {
+    private double x;
+    private double y;
+    private double viewportWidth;
+    private double viewportHeight;
+
+    public void setViewport(double viewportWidth, double viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+    }
+
+    /**
+     * Centres the view on the target, clamped so it stays inside a world of the given size.
+     * A world smaller than the viewport is centred in it instead.
+     */
+    public void follow(double targetX, double targetY, double worldWidth, double worldHeight) {
+        x = Math.round(axis(targetX, viewportWidth, worldWidth));
+        y = Math.round(axis(targetY, viewportHeight, worldHeight));
+    }
+
+    private static double axis(double target, double viewportSize, double worldSize) {
+        if (worldSize <= viewportSize) {
+            return (worldSize - viewportSize) / 2;
+        }
+        return Math.max(0, Math.min(target - viewportSize / 2, worldSize - viewportSize));
+    }
+
+    /**
+     * Whether a world-space box overlaps the viewport at all.
+     */
+    public boolean isVisible(double boxX, double boxY, double boxWidth, double boxHeight) {
+        return boxX < x + viewportWidth &&
+                boxX + boxWidth > x &&
+                boxY < y + viewportHeight &&
+                boxY + boxHeight > y;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getViewportWidth() {
+        return viewportWidth;
+    }
+
+    public double getViewportHeight() {
+        return viewportHeight;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo;
+
+import java.util.Arrays;
+
+/**
+ * Screen rectangles to repaint in a frame, widened to whole pixels plus a margin for
+ * antialiased edges. Rectangles are kept as they are added rather than merged, so the
+ * total area overcounts where they overlap; that only makes the full-redraw fallback
+ * kick in a little early.
+ */
+public class DirtyRects {
+    // Antialiasing and stroke widths reach this far outside an entity's box
+    private static final double MARGIN = 2;
+
+    private double[] x = new double[64];
+    private double[] y = new double[64];
+    private double[] width = new double[64];
+    private double[] height = new double[64];
+    private int count = 0;
+    private double area = 0;
+
+    public void add(double boxX, double boxY, double boxWidth, double boxHeight) {
+        double x0 = Math.floor(boxX - MARGIN);
+        double y0 = Math.floor(boxY - MARGIN);
+        append(x0, y0, Math.ceil(boxX + boxWidth + MARGIN) - x0, Math.ceil(boxY + boxHeight + MARGIN) - y0);
+    }
+
+    public void addAll(DirtyRects other) {
+        for (int i = 0; i < other.count; i++) {
+            append(other.x[i], other.y[i], other.width[i], other.height[i]);
+        }
+    }
+
+    private void append(double rectX, double rectY, double rectWidth, double rectHeight) {
+        if (count == x.length) {
+            x = Arrays.copyOf(x, count * 2);
+            y = Arrays.copyOf(y, count * 2);
+            width = Arrays.copyOf(width, count * 2);
+            height = Arrays.copyOf(height, count * 2);
+        }
+        x[count] = rectX;
+        y[count] = rectY;
+        width[count] = rectWidth;
+        height[count] = rectHeight;
+        area += rectWidth * rectHeight;
+        count++;
+    }
+
+    public boolean intersects(double boxX, double boxY, double boxWidth, double boxHeight) {
+        for (int i = 0; i < count; i++) {
+            if (boxX < x[i] + width[i] && boxX + boxWidth > x[i] && boxY < y[i] + height[i] && boxY + boxHeight > y[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        count = 0;
+        area = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Sum of the rectangles' areas, in square pixels.
+     */
+    public double getArea() {
+        return area;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getWidth(int index) {
+        return width[index];
+    }
+
+    public double getHeight(int index) {
+        return height[index];
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo;
+
+/**
+ * Accumulator for running the simulation at a fixed tick rate independent of the display.
+ * Each frame feeds in the real elapsed time and gets back how many whole ticks to run,
+ * plus an interpolation factor for rendering between the last two ticks.
+ */
+public class FixedTimestep {
+    // A single frame longer than this (GC pause, fullscreen switch, debugger) is treated as this long
+    private static final double MAX_FRAME_TIME = 0.25;
+
+    private final double stepSeconds;
+    private final int maxStepsPerFrame;
+    private double accumulator = 0;
+    private long totalSteps = 0;
+    private long droppedSteps = 0;
+
+    public FixedTimestep(double ticksPerSecond, int maxStepsPerFrame) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("ticksPerSecond must be positive: " + ticksPerSecond);
+        }
+        if (maxStepsPerFrame < 1) {
+            throw new IllegalArgumentException("maxStepsPerFrame must be at least 1: " + maxStepsPerFrame);
+        }
+        this.stepSeconds = 1.0 / ticksPerSecond;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * Adds a frame's worth of elapsed time and returns the number of ticks to run now.
+     * Never returns more than the catch-up budget; time beyond that is dropped so a slow
+     * machine falls behind gracefully instead of spiralling into ever longer frames.
+     */
+    public int advance(double frameSeconds) {
+        if (frameSeconds < 0) {
+            frameSeconds = 0;
+        } else if (frameSeconds > MAX_FRAME_TIME) {
+            frameSeconds = MAX_FRAME_TIME;
+        }
+
+        accumulator += frameSeconds;
+        int steps = (int) (accumulator / stepSeconds);
+
+        if (steps > maxStepsPerFrame) {
+            droppedSteps += steps - maxStepsPerFrame;
+            steps = maxStepsPerFrame;
+            // Keep only the fractional part so interpolation stays smooth
+            accumulator = accumulator % stepSeconds;
+        } else {
+            accumulator -= steps * stepSeconds;
+        }
+
+        totalSteps += steps;
+        return steps;
+    }
+
+    /**
+     * How far we are between the previous tick and the current one, in [0, 1).
+     */
+    public double getAlpha() {
+        return accumulator / stepSeconds;
+    }
+
+    public void reset() {
+        accumulator = 0;
+    }
+
+    public double getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public int getMaxStepsPerFrame() {
+        return maxStepsPerFrame;
+    }
+
+    public long getTotalSteps() {
+        return totalSteps;
+    }
+
+    public long getDroppedSteps() {
+        return droppedSteps;
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.demo;
+
+import com.example.demo.sim.Player;
+import com.example.demo.sim.RenderState;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/**
+ * Health hearts, the level/enemies/cooldown panel and the controls line. The panel is
+ * kept in an offscreen image that is repainted only when something it shows changes:
+ * health, level or enemy count. The cooldown bars move on almost every frame while they
+ * recharge, so they are left out of the image and filled in over it each frame, a few
+ * rectangles apiece. The controls line never changes and is baked once. Otherwise
+ * drawing the HUD is two blits and the bars.
+ */
+public class HudLayer {
+    private static final Font LEVEL_FONT = Font.font("Arial", FontWeight.BOLD, 24);
+    private static final Font ENEMIES_FONT = Font.font("Arial", FontWeight.BOLD, 20);
+    private static final Font LABEL_FONT = Font.font("Arial", FontWeight.BOLD, 18);
+    private static final Font CONTROLS_FONT = Font.font("Arial", 16);
+    private static final String CONTROLS =
+            "Controls: A/D - Move | SPACE/W - Jump (Hold) | SHIFT - Dash | F - Shoot | E - Enter Door | ESC - Toggle Fullscreen";
+
+    private static final Color PANEL_FILL = Color.rgb(20, 20, 30, 0.8);
+    private static final Color PANEL_EDGE = Color.rgb(100, 100, 120);
+    private static final Color ENEMIES_TEXT = Color.rgb(255, 150, 150);
+    private static final Color DASH_COOLING = Color.rgb(255, 100, 100);
+    private static final Color DASH_READY = Color.rgb(100, 255, 100);
+    private static final Color SHOOT_COOLING = Color.rgb(100, 100, 255);
+    private static final Color SHOOT_READY = Color.rgb(100, 200, 255);
+    private static final Color BAR_EMPTY = Color.rgb(60, 60, 70);
+    private static final Color BAR_EDGE = Color.rgb(150, 150, 170);
+    private static final Color HEART_FULL = Color.rgb(220, 50, 50);
+    private static final Color HEART_EMPTY = Color.rgb(60, 60, 70);
+    private static final Color HEART_EDGE = Color.rgb(150, 30, 30);
+
+    // The panel's texts for every number a game will plausibly show, made up front so that
+    // repainting the panel after a kill builds no strings
+    private static final String LEVEL_PREFIX = "Level ";
+    private static final String ENEMIES_PREFIX = "Enemies: ";
+    private static final String[] LEVEL_TEXTS = numbered(LEVEL_PREFIX, 100);
+    private static final String[] ENEMIES_TEXTS = numbered(ENEMIES_PREFIX, 100);
+
+    private static final int MAX_HEALTH = 5;
+    private static final double BAR_WIDTH = 150;
+    private static final double BAR_HEIGHT = 20;
+
+    // The panel occupies the top-right corner; offsets from the screen's right and top edges
+    private static final double PANEL_LEFT = 282;
+    private static final double PANEL_TOP = 18;
+    private static final double PANEL_WIDTH = 284;
+    private static final double PANEL_HEIGHT = 206;
+
+    private final Snapshotter snapshotter;
+    private final SnapshotParameters snapshotParameters = new SnapshotParameters();
+    private final Canvas panelCanvas = new Canvas(PANEL_WIDTH, PANEL_HEIGHT);
+    private WritableImage panelImage;
+    private WritableImage controlsImage;
+    private double controlsBaseline;
+
+    // What the panel image currently shows, and the bars over it; a cooldown fill of -1
+    // means the bar is ready
+    private int shownHealth = -1;
+    private int shownLevel = -1;
+    private int shownEnemies = -1;
+    private int shownDashFill = -2;
+    private int shownShootFill = -2;
+    private String levelText;
+    private String enemiesText;
+
+    private final double[] heartX = new double[3];
+    private final double[] heartY = new double[3];
+    private long redrawCount = 0;
+
+    public HudLayer() {
+        this(Snapshotter.JAVAFX);
+    }
+
+    HudLayer(Snapshotter snapshotter) {
+        this.snapshotter = snapshotter;
+        snapshotParameters.setFill(Color.TRANSPARENT);
+    }
+
+    public void draw(GraphicsContext gc, RenderState state, double screenWidth, double screenHeight) {
+        refresh(state);
+        drawPanel(gc, screenWidth);
+        drawControls(gc, screenHeight);
+    }
+
+    /**
+     * Repaints the panel image if anything it shows has changed, without drawing it.
+     * Returns true if the panel will look different from last frame: it was repainted,
+     * or a cooldown bar moved.
+     */
+    public boolean refresh(RenderState state) {
+        Player player = state.getPlayer();
+        int health = player.getHealth();
+        int level = state.getCurrentLevel();
+        int enemies = state.getEnemies().size();
+        int dashFill = fill(player.getDashCooldownTimer(), player.getDashCooldown());
+        int shootFill = fill(player.getShootCooldownTimer(), player.getShootCooldown());
+
+        boolean changed = dashFill != shownDashFill || shootFill != shownShootFill;
+        shownDashFill = dashFill;
+        shownShootFill = shootFill;
+        if (panelImage == null || health != shownHealth || level != shownLevel || enemies != shownEnemies) {
+            updateTexts(level, enemies);
+            shownHealth = health;
+
+            GraphicsContext g = panelCanvas.getGraphicsContext2D();
+            g.clearRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
+            paintPanel(g, PANEL_LEFT, -PANEL_TOP);
+            if (panelImage == null) {
+                panelImage = new WritableImage((int) PANEL_WIDTH, (int) PANEL_HEIGHT);
+            }
+            snapshotter.snapshot(panelCanvas, snapshotParameters, panelImage);
+            redrawCount++;
+            changed = true;
+        }
+
+        if (controlsImage == null) {
+            bakeControls();
+        }
+        return changed;
+    }
+
+    private void drawPanel(GraphicsContext gc, double screenWidth) {
+        gc.drawImage(panelImage, screenWidth - PANEL_LEFT, PANEL_TOP);
+        paintBars(gc, screenWidth, 0);
+    }
+
+    private void drawControls(GraphicsContext gc, double screenHeight) {
+        gc.drawImage(controlsImage, 10, screenHeight - 10 - controlsBaseline);
+    }
+
+    /**
+     * Adds the panel to the dirty rectangles if it changed or overlaps one of them, and the
+     * controls line if it overlaps one, since either has to be restored and blitted again
+     * once anything underneath is repainted. Call after {@link #refresh(RenderState)}.
+     */
+    public void addDirty(DirtyRects dirty, double screenWidth, double screenHeight, boolean panelChanged) {
+        double panelX = screenWidth - PANEL_LEFT;
+        double controlsY = screenHeight - 10 - controlsBaseline;
+        boolean panel = false;
+        boolean controls = false;
+        boolean added = true;
+        while (added) {
+            added = false;
+            if (!panel && (panelChanged || dirty.intersects(panelX, PANEL_TOP, PANEL_WIDTH, PANEL_HEIGHT))) {
+                dirty.add(panelX, PANEL_TOP, PANEL_WIDTH, PANEL_HEIGHT);
+                panel = true;
+                added = true;
+            }
+            if (!controls && dirty.intersects(10, controlsY, controlsImage.getWidth(), controlsImage.getHeight())) {
+                dirty.add(10, controlsY, controlsImage.getWidth(), controlsImage.getHeight());
+                controls = true;
+                added = true;
+            }
+        }
+    }
+
+    /**
+     * Blits whichever of the panel and controls line overlap the dirty rectangles.
+     */
+    public void drawDirty(GraphicsContext gc, DirtyRects dirty, double screenWidth, double screenHeight) {
+        if (dirty.intersects(screenWidth - PANEL_LEFT, PANEL_TOP, PANEL_WIDTH, PANEL_HEIGHT)) {
+            drawPanel(gc, screenWidth);
+        }
+        double controlsY = screenHeight - 10 - controlsBaseline;
+        if (dirty.intersects(10, controlsY, controlsImage.getWidth(), controlsImage.getHeight())) {
+            drawControls(gc, screenHeight);
+        }
+    }
+
+    /**
+     * Paints the HUD straight onto gc every call, without any caching.
+     */
+    public void drawUncached(GraphicsContext gc, RenderState state, double screenWidth, double screenHeight) {
+        Player player = state.getPlayer();
+        shownHealth = player.getHealth();
+        shownDashFill = fill(player.getDashCooldownTimer(), player.getDashCooldown());
+        shownShootFill = fill(player.getShootCooldownTimer(), player.getShootCooldown());
+        updateTexts(state.getCurrentLevel(), state.getEnemies().size());
+        panelImage = null;
+
+        paintPanel(gc, screenWidth, 0);
+        paintBars(gc, screenWidth, 0);
+
+        gc.setFill(Color.WHITE);
+        gc.setFont(CONTROLS_FONT);
+        gc.fillText(CONTROLS, 10, screenHeight - 10);
+    }
+
+    private void updateTexts(int level, int enemies) {
+        levelText = text(LEVEL_TEXTS, LEVEL_PREFIX, level);
+        enemiesText = text(ENEMIES_TEXTS, ENEMIES_PREFIX, enemies);
+        shownLevel = level;
+        shownEnemies = enemies;
+    }
+
+    private static String[] numbered(String prefix, int count) {
+        String[] texts = new String[count];
+        for (int i = 0; i < count; i++) {
+            texts[i] = prefix + i;
+        }
+        return texts;
+    }
+
+    private static String text(String[] texts, String prefix, int number) {
+        return number >= 0 && number < texts.length ? texts[number] : prefix + number;
+    }
+
+    // Width in whole pixels of a cooldown bar's fill, or -1 once it has recharged
+    private static int fill(double timer, double cooldown) {
+        return timer > 0 ? (int) Math.round(BAR_WIDTH * timer / cooldown) : -1;
+    }
+
+    // Sized without laying the text out: the line is drawn into a canvas it has to fit in,
+    // no glyph being wider than an em or reaching further than one from the baseline, and
+    // the image is then cropped to the pixels it painted
+    private void bakeControls() {
+        double em = Math.ceil(CONTROLS_FONT.getSize());
+        double baseline = em + 1;
+
+        Canvas canvas = new Canvas(em * CONTROLS.length(), 2 * em + 2);
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.setFill(Color.WHITE);
+        g.setFont(CONTROLS_FONT);
+        g.fillText(CONTROLS, 0, baseline);
+        WritableImage image = snapshotter.snapshot(canvas, snapshotParameters, null);
+
+        PixelReader pixels = image.getPixelReader();
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int right = -1;
+        int top = height;
+        int bottom = -1;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (pixels.getArgb(x, y) >>> 24 != 0) {
+                    right = Math.max(right, x);
+                    top = Math.min(top, y);
+                    bottom = y;
+                }
+            }
+        }
+        if (right < 0) {
+            // Nothing painted, as when a test stands in for the snapshot; keep the whole canvas
+            controlsImage = image;
+            controlsBaseline = baseline;
+            return;
+        }
+        // A pixel's margin on the sides that were cropped, as the text's own bounds had
+        top = Math.max(0, top - 1);
+        controlsImage = new WritableImage(pixels, 0, top, Math.min(width, right + 2), Math.min(height, bottom + 2) - top);
+        controlsBaseline = baseline - top;
+    }
+
+    private void paintPanel(GraphicsContext gc, double right, double top) {
+        paintHealth(gc, right - 270, top + 20);
+
+        double hudX = right - 280;
+        double hudY = top + 80;
+        double hudWidth = 260;
+        double hudHeight = 140;
+
+        gc.setFill(PANEL_FILL);
+        gc.fillRoundRect(hudX, hudY, hudWidth, hudHeight, 10, 10);
+        gc.setStroke(PANEL_EDGE);
+        gc.setLineWidth(2);
+        gc.strokeRoundRect(hudX, hudY, hudWidth, hudHeight, 10, 10);
+
+        gc.setFill(Color.WHITE);
+        gc.setFont(LEVEL_FONT);
+        gc.fillText(levelText, hudX + 15, hudY + 30);
+
+        gc.setFill(ENEMIES_TEXT);
+        gc.setFont(ENEMIES_FONT);
+        gc.fillText(enemiesText, hudX + 15, hudY + 60);
+
+        gc.setFill(Color.WHITE);
+        gc.setFont(LABEL_FONT);
+        gc.fillText("Dash:", hudX + 15, hudY + 90);
+        gc.fillText("Shoot:", hudX + 15, hudY + 125);
+    }
+
+    // The cooldown bars, placed as paintPanel places the panel
+    private void paintBars(GraphicsContext gc, double right, double top) {
+        double barX = right - 200;
+        paintBar(gc, barX, top + 155, shownDashFill, DASH_COOLING, DASH_READY);
+        paintBar(gc, barX, top + 190, shownShootFill, SHOOT_COOLING, SHOOT_READY);
+    }
+
+    private void paintBar(GraphicsContext gc, double x, double y, int fill, Color cooling, Color ready) {
+        gc.setFill(BAR_EMPTY);
+        gc.fillRect(x, y, BAR_WIDTH, BAR_HEIGHT);
+
+        if (fill >= 0) {
+            gc.setFill(cooling);
+            gc.fillRect(x, y, fill, BAR_HEIGHT);
+        } else {
+            gc.setFill(ready);
+            gc.fillRect(x, y, BAR_WIDTH, BAR_HEIGHT);
+        }
+
+        gc.setStroke(BAR_EDGE);
+        gc.setLineWidth(2);
+        gc.strokeRect(x, y, BAR_WIDTH, BAR_HEIGHT);
+    }
+
+    private void paintHealth(GraphicsContext gc, double startX, double startY) {
+        double heartSize = 40;
+        double heartSpacing = 50;
+
+        for (int i = 0; i < MAX_HEALTH; i++) {
+            double x = startX + (i * heartSpacing);
+
+            if (i < shownHealth) {
+                gc.setFill(HEART_FULL);
+            } else {
+                gc.setFill(HEART_EMPTY);
+            }
+
+            gc.fillOval(x, startY, heartSize / 2, heartSize / 2);
+            gc.fillOval(x + heartSize / 2, startY, heartSize / 2, heartSize / 2);
+
+            heartX[0] = x;
+            heartX[1] = x + heartSize;
+            heartX[2] = x + heartSize / 2;
+            heartY[0] = startY + heartSize / 3;
+            heartY[1] = startY + heartSize / 3;
+            heartY[2] = startY + heartSize;
+            gc.fillPolygon(heartX, heartY, 3);
+
+            gc.setStroke(HEART_EDGE);
+            gc.setLineWidth(2);
+            gc.strokeOval(x, startY, heartSize / 2, heartSize / 2);
+            gc.strokeOval(x + heartSize / 2, startY, heartSize / 2, heartSize / 2);
+            gc.strokePolygon(heartX, heartY, 3);
+        }
+    }
+
+    /**
+     * Number of times the panel image has been repainted.
+     */
+    public long getRedrawCount() {
+        return redrawCount;
+    }
+}
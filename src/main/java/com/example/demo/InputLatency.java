@@ -0,0 +1,46 @@
+package com.example.demo;
+
+import java.util.Arrays;
+
+/**
+ * Time from a key press arriving to the end of the first frame rendered after the tick
+ * that applied it, over the last {@link #WINDOW} presses. This covers queueing until
+ * the next tick, the tick itself and drawing; the final hand-off to the display is
+ * JavaFX's and isn't included.
+ */
+public class InputLatency {
+    public static final int WINDOW = 256;
+
+    private final long[] samples = new long[WINDOW];
+    private final long[] sortScratch = new long[WINDOW];
+    private int next = 0;
+    private int size = 0;
+    private long count = 0;
+
+    public void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % WINDOW;
+        size = Math.min(size + 1, WINDOW);
+        count++;
+    }
+
+    public long percentile(double percentile) {
+        if (size == 0) return 0;
+        System.arraycopy(samples, 0, sortScratch, 0, size);
+        Arrays.sort(sortScratch, 0, size);
+        int rank = (int) Math.ceil(percentile / 100 * size) - 1;
+        return sortScratch[Math.max(0, Math.min(rank, size - 1))];
+    }
+
+    public long max() {
+        long max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo;
+
+import com.example.demo.sim.InputSnapshot;
+import javafx.scene.input.KeyCode;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects key events as they arrive and turns them into one {@link InputSnapshot} per
+ * tick. Events are queued with their arrival time and only applied when a tick asks for
+ * its snapshot, so held buttons and actions are always read at the same point.
+ *
+ * A key that goes down and up again between two ticks still shows up in the next
+ * snapshot, so quick taps are never lost.
+ *
+ * Events are added on the JavaFX thread and snapshots taken on the simulation thread.
+ * They meet in a fixed-size single-producer, single-consumer ring: each side only
+ * advances its own index, after it has written or read the slots, so neither side
+ * ever blocks. If the simulation stops taking snapshots the ring fills up and further
+ * events are dropped and counted.
+ */
+public class KeyboardInput {
+    // Keys we care about, each mapped to the button it drives
+    private static final KeyCode[] KEYS = {
+            KeyCode.A, KeyCode.LEFT, KeyCode.D, KeyCode.RIGHT,
+            KeyCode.SPACE, KeyCode.W, KeyCode.UP, KeyCode.SHIFT,
+            KeyCode.F, KeyCode.E, KeyCode.R
+    };
+    private static final int[] BUTTONS = {
+            InputSnapshot.MOVE_LEFT, InputSnapshot.MOVE_LEFT, InputSnapshot.MOVE_RIGHT, InputSnapshot.MOVE_RIGHT,
+            InputSnapshot.JUMP, InputSnapshot.JUMP, InputSnapshot.JUMP, InputSnapshot.DASH,
+            InputSnapshot.SHOOT, InputSnapshot.ENTER_DOOR, InputSnapshot.RESTART
+    };
+
+    // Pending events: key index, down or up, and when it arrived. Slots [head, tail) hold
+    // events not yet applied; the FX thread owns tail, the simulation thread head.
+    private static final int QUEUE_SIZE = 256;
+    private final int[] eventKeys = new int[QUEUE_SIZE];
+    private final boolean[] eventDown = new boolean[QUEUE_SIZE];
+    private final long[] eventTimes = new long[QUEUE_SIZE];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long droppedEvents = 0;
+
+    private int heldKeys = 0;
+    private long oldestPress = -1;
+    private final InputSnapshot snapshot = new InputSnapshot();
+
+    public void press(KeyCode code, long timeNanos) {
+        queue(code, true, timeNanos);
+    }
+
+    public void release(KeyCode code, long timeNanos) {
+        queue(code, false, timeNanos);
+    }
+
+    private void queue(KeyCode code, boolean down, long timeNanos) {
+        int key = indexOf(code);
+        if (key < 0) return;
+
+        long t = tail.get();
+        if (t - head.get() == QUEUE_SIZE) {
+            droppedEvents++;
+            return;
+        }
+        int slot = (int) (t % QUEUE_SIZE);
+        eventKeys[slot] = key;
+        eventDown[slot] = down;
+        eventTimes[slot] = timeNanos;
+        tail.lazySet(t + 1);
+    }
+
+    private static int indexOf(KeyCode code) {
+        for (int i = 0; i < KEYS.length; i++) {
+            if (KEYS[i] == code) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Applies every queued event and returns the input for the next tick. The returned
+     * instance is reused by the next call. Simulation thread only.
+     */
+    public InputSnapshot snapshot() {
+        int pressed = 0;
+        long h = head.get();
+        long t = tail.get();
+        for (; h < t; h++) {
+            int i = (int) (h % QUEUE_SIZE);
+            int bit = 1 << eventKeys[i];
+            if (eventDown[i]) {
+                // Ignore key repeat: only a key that was up counts as a new press. Held
+                // shoot fires on its own, at the cooldown rate, so it needs no repeats
+                if ((heldKeys & bit) == 0) {
+                    pressed |= bit;
+                    if (oldestPress < 0) {
+                        oldestPress = eventTimes[i];
+                    }
+                }
+                heldKeys |= bit;
+            } else {
+                heldKeys &= ~bit;
+            }
+        }
+        head.lazySet(t);
+
+        int buttons = 0;
+        for (int key = 0; key < KEYS.length; key++) {
+            int bit = 1 << key;
+            if ((pressed & bit) != 0 || ((heldKeys & bit) != 0 && (BUTTONS[key] & InputSnapshot.ACTIONS) == 0)) {
+                buttons |= BUTTONS[key];
+            }
+        }
+        snapshot.setBits(buttons);
+        return snapshot;
+    }
+
+    /**
+     * Arrival time of the earliest key press applied by a snapshot since the last call,
+     * or -1 if there was none. Used to measure how long input takes to reach the screen.
+     * Simulation thread only.
+     */
+    public long takeOldestAppliedPress() {
+        long press = oldestPress;
+        oldestPress = -1;
+        return press;
+    }
+
+    /**
+     * Events dropped because the queue was full.
+     */
+    public long getDroppedEvents() {
+        return droppedEvents;
+    }
+}
@@ -4,12 +4,19 @@ import javafx.application.Application;
 import javafx.stage.Stage;
 
 public class Main extends Application {
+    private Game game;
+
     @Override
     public void start(Stage primaryStage) {
-        Game game = new Game();
+        game = new Game();
         game.start(primaryStage);
     }
 
+    @Override
+    public void stop() {
+        game.stop();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
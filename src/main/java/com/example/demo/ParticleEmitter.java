@@ -0,0 +1,55 @@
+package com.example.demo;
+
+/**
+ * How one kind of particle effect looks: how many particles a burst makes, how fast and
+ * in which directions they leave, how long they live, and how gravity and drag act on
+ * them. Colours are opaque RGB; particles fade out over their life.
+ */
+public final class ParticleEmitter {
+    // Yellow-white sparks thrown forward, along the projectile's path
+    public static final ParticleEmitter HIT_SPARKS =
+            new ParticleEmitter(60, 150, 520, Math.PI * 0.6, 0.25, 0.6, 900, 1.5, 0xFFF0A0, 0xFFFFFF);
+    // Red drops bursting out all around the player
+    public static final ParticleEmitter DAMAGE_BURST =
+            new ParticleEmitter(80, 80, 360, Math.PI * 2, 0.3, 0.8, 700, 2.0, 0xFF3030, 0xFF9090);
+    // Cyan puff left behind; count is per second while dashing, plus one burst on the first tick
+    public static final ParticleEmitter DASH_TRAIL =
+            new ParticleEmitter(400, 20, 120, Math.PI * 2, 0.15, 0.35, 0, 6.0, 0x40FFFF, 0xC0FFFF);
+
+    final int count;
+    final float minSpeed;
+    final float maxSpeed;
+    final float spread;
+    final float minLife;
+    final float maxLife;
+    final float gravity;
+    final float drag;
+    final int colorA;
+    final int colorB;
+
+    /**
+     * @param count   particles per burst
+     * @param spread  angle in radians the particles leave within, centred on the burst's
+     *                direction; a burst with no direction always uses a full circle
+     * @param gravity downward acceleration in pixels per second squared
+     * @param drag    fraction of speed lost per second, roughly
+     * @param colorA  colour at one end of the range each particle picks from, as 0xRRGGBB
+     */
+    public ParticleEmitter(int count, double minSpeed, double maxSpeed, double spread, double minLife,
+                           double maxLife, double gravity, double drag, int colorA, int colorB) {
+        this.count = count;
+        this.minSpeed = (float) minSpeed;
+        this.maxSpeed = (float) maxSpeed;
+        this.spread = (float) spread;
+        this.minLife = (float) minLife;
+        this.maxLife = (float) maxLife;
+        this.gravity = (float) gravity;
+        this.drag = (float) drag;
+        this.colorA = colorA;
+        this.colorB = colorB;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
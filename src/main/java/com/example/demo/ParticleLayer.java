@@ -0,0 +1,172 @@
+package com.example.demo;
+
+import com.example.demo.sim.EffectEvents;
+import com.example.demo.sim.Player;
+import com.example.demo.sim.RenderState;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Turns the simulation's effect events into particles and draws them. Enemy kills throw
+ * hit sparks, damage bursts out of the player, and dashing leaves a trail. All particles
+ * are written into one ARGB buffer at a {@link #SCALE}th of screen resolution, only the
+ * part that changed is copied into the image through its PixelWriter, and the image is
+ * drawn with a single drawImage however many particles there are.
+ *
+ * Particles live on the FX thread and move with the frame rate, not the tick rate; they
+ * never affect the game.
+ */
+public class ParticleLayer {
+    public static final int SCALE = 2;
+
+    private static final PixelFormat<IntBuffer> FORMAT = PixelFormat.getIntArgbPreInstance();
+
+    private final ParticleSystem particles;
+    // -Drender.particleStress=N keeps about N particles alive, for measuring
+    private final int stressTarget = Integer.getInteger("render.particleStress", 0);
+    private int stressSpot = 0;
+
+    private WritableImage image;
+    private PixelWriter writer;
+    private int[] pixels = new int[0];
+    private int width;
+    private int height;
+    private final int[] bounds = new int[4];
+    // Box of the pixels the image currently shows; cleared before the next frame is written
+    private boolean shown = false;
+    private int shownMinX;
+    private int shownMinY;
+    private int shownMaxX;
+    private int shownMaxY;
+
+    // Number of the first effect event not yet turned into particles, -1 until the first state
+    private long nextEvent = -1;
+    private double trailCarry = 0;
+
+    public ParticleLayer(ParticleSystem particles) {
+        this.particles = particles;
+    }
+
+    /**
+     * Emits particles for the state's events not seen before and for a dash in progress,
+     * then moves every particle on by the frame time. Emission scales every effect's
+     * particle count, for lower quality tiers.
+     */
+    public void update(RenderState state, double deltaTime, double emission) {
+        EffectEvents effects = state.getEffects();
+        if (nextEvent < 0) {
+            nextEvent = effects.getCount();
+        }
+        for (long event = Math.max(nextEvent, effects.getOldest()); event < effects.getCount(); event++) {
+            double x = effects.getX(event);
+            double y = effects.getY(event);
+            switch (effects.getType(event)) {
+                case EffectEvents.ENEMY_KILLED:
+                    burst(ParticleEmitter.HIT_SPARKS, x, y, effects.getDirection(event), emission);
+                    break;
+                case EffectEvents.PLAYER_DAMAGED:
+                    burst(ParticleEmitter.DAMAGE_BURST, x, y, 0, emission);
+                    break;
+                case EffectEvents.DASH_STARTED:
+                    // A puff behind the player, an eighth of a second's worth of trail
+                    particles.emit(ParticleEmitter.DASH_TRAIL, x, y, -effects.getDirection(event),
+                            (int) Math.ceil(ParticleEmitter.DASH_TRAIL.count * emission / 8));
+                    break;
+            }
+        }
+        nextEvent = effects.getCount();
+
+        Player player = state.getPlayer();
+        if (player.isDashing() && !state.isGameOver()) {
+            trailCarry += ParticleEmitter.DASH_TRAIL.count * emission * deltaTime;
+            int count = (int) trailCarry;
+            trailCarry -= count;
+            particles.emit(ParticleEmitter.DASH_TRAIL, player.getX() + player.getWidth() / 2,
+                    player.getY() + player.getHeight() / 2, 0, count);
+        } else {
+            trailCarry = 0;
+        }
+
+        while (particles.size() < stressTarget && particles.size() < particles.getCapacity()) {
+            // Spread bursts over the world on a coarse pseudo-random walk
+            stressSpot = stressSpot * 1103515245 + 12345;
+            double x = ((stressSpot >>> 8) % 1000) / 1000.0 * state.getWidth();
+            double y = ((stressSpot >>> 18) % 1000) / 1000.0 * state.getHeight();
+            particles.emit(ParticleEmitter.HIT_SPARKS, x, y, 0, ParticleEmitter.HIT_SPARKS.count);
+        }
+
+        particles.update((float) deltaTime);
+    }
+
+    private void burst(ParticleEmitter emitter, double x, double y, double direction, double emission) {
+        particles.emit(emitter, x, y, direction, (int) Math.ceil(emitter.count * emission));
+    }
+
+    /**
+     * Draws the particles over a viewport whose top-left corner is at the given world
+     * position. Expects gc to be in screen coordinates.
+     */
+    public void draw(GraphicsContext gc, double cameraX, double cameraY, double viewportWidth, double viewportHeight) {
+        int imageWidth = (int) Math.ceil(viewportWidth / SCALE);
+        int imageHeight = (int) Math.ceil(viewportHeight / SCALE);
+        if (image == null || imageWidth != width || imageHeight != height) {
+            width = imageWidth;
+            height = imageHeight;
+            image = new WritableImage(width, height);
+            writer = image.getPixelWriter();
+            pixels = new int[width * height];
+            shown = false;
+        }
+        if (!shown && particles.size() == 0) return;
+
+        if (shown) {
+            for (int row = shownMinY; row <= shownMaxY; row++) {
+                Arrays.fill(pixels, row * width + shownMinX, row * width + shownMaxX + 1, 0);
+            }
+        }
+        boolean drawn = particles.rasterize(pixels, width, height, cameraX, cameraY, SCALE, bounds);
+
+        // Copy the union of what was shown and what is drawn now, clearing the old pixels
+        int minX = drawn ? bounds[0] : shownMinX;
+        int minY = drawn ? bounds[1] : shownMinY;
+        int maxX = drawn ? bounds[2] : shownMaxX;
+        int maxY = drawn ? bounds[3] : shownMaxY;
+        if (shown && drawn) {
+            minX = Math.min(minX, shownMinX);
+            minY = Math.min(minY, shownMinY);
+            maxX = Math.max(maxX, shownMaxX);
+            maxY = Math.max(maxY, shownMaxY);
+        }
+        if (shown || drawn) {
+            writer.setPixels(minX, minY, maxX - minX + 1, maxY - minY + 1, FORMAT, pixels,
+                    minY * width + minX, width);
+        }
+
+        shown = drawn;
+        shownMinX = bounds[0];
+        shownMinY = bounds[1];
+        shownMaxX = bounds[2];
+        shownMaxY = bounds[3];
+        if (!drawn) return;
+
+        gc.setImageSmoothing(false);
+        gc.drawImage(image, 0, 0, width, height, 0, 0, width * SCALE, height * SCALE);
+        gc.setImageSmoothing(true);
+    }
+
+    /**
+     * True when there are no particles and none left on screen, so a frame can skip this layer.
+     */
+    public boolean isIdle() {
+        return particles.size() == 0 && !shown;
+    }
+
+    public ParticleSystem getParticles() {
+        return particles;
+    }
+}
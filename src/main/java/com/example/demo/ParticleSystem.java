@@ -0,0 +1,192 @@
+package com.example.demo;
+
+/**
+ * Fixed-capacity particle store kept as parallel primitive arrays, like the projectile
+ * pool: live particles are packed into slots [0, size()) and a dead one is replaced by
+ * the last live one, so emitting, updating and removing never allocate. Updating and
+ * drawing are each one pass over the arrays. Drawing writes one pixel per particle into
+ * a caller's ARGB buffer rather than issuing a draw call per particle.
+ *
+ * Single-threaded; independent of JavaFX so it can be benchmarked on its own.
+ */
+public class ParticleSystem {
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] life;
+    private final float[] inverseMaxLife;
+    private final float[] gravity;
+    private final float[] drag;
+    // Opaque 0xRRGGBB; alpha comes from the remaining life when drawn
+    private final int[] color;
+    private int count = 0;
+    private long emittedCount = 0;
+    private long overflowCount = 0;
+
+    // xorshift state; particles only need cheap, not good, randomness
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    public ParticleSystem(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        life = new float[capacity];
+        inverseMaxLife = new float[capacity];
+        gravity = new float[capacity];
+        drag = new float[capacity];
+        color = new int[capacity];
+    }
+
+    /**
+     * Emits count particles of the emitter's kind at a world position. Direction is -1 or
+     * 1 to aim the emitter's spread left or right, or 0 to spray all around. Particles
+     * that don't fit are dropped and counted. Returns the number emitted.
+     */
+    public int emit(ParticleEmitter emitter, double originX, double originY, double direction, int count) {
+        int free = capacity - this.count;
+        if (count > free) {
+            overflowCount += count - free;
+            count = free;
+        }
+
+        float baseAngle = direction < 0 ? (float) Math.PI : 0;
+        float spread = direction == 0 ? (float) (Math.PI * 2) : emitter.spread;
+        for (int n = 0; n < count; n++) {
+            int i = this.count++;
+            float angle = baseAngle + (nextFloat() - 0.5f) * spread;
+            float speed = emitter.minSpeed + nextFloat() * (emitter.maxSpeed - emitter.minSpeed);
+            float maxLife = emitter.minLife + nextFloat() * (emitter.maxLife - emitter.minLife);
+            x[i] = (float) originX;
+            y[i] = (float) originY;
+            velocityX[i] = (float) Math.cos(angle) * speed;
+            velocityY[i] = (float) Math.sin(angle) * speed;
+            life[i] = maxLife;
+            inverseMaxLife[i] = 1 / maxLife;
+            gravity[i] = emitter.gravity;
+            drag[i] = emitter.drag;
+            color[i] = mix(emitter.colorA, emitter.colorB, nextFloat());
+        }
+        emittedCount += count;
+        return count;
+    }
+
+    /**
+     * Moves every particle and removes those whose life has run out.
+     */
+    public void update(float deltaTime) {
+        int i = 0;
+        while (i < count) {
+            float remaining = life[i] - deltaTime;
+            if (remaining <= 0) {
+                remove(i);
+                continue;
+            }
+            life[i] = remaining;
+            float damping = Math.max(0, 1 - drag[i] * deltaTime);
+            velocityX[i] *= damping;
+            velocityY[i] = velocityY[i] * damping + gravity[i] * deltaTime;
+            x[i] += velocityX[i] * deltaTime;
+            y[i] += velocityY[i] * deltaTime;
+            i++;
+        }
+    }
+
+    private void remove(int index) {
+        int last = --count;
+        if (index != last) {
+            x[index] = x[last];
+            y[index] = y[last];
+            velocityX[index] = velocityX[last];
+            velocityY[index] = velocityY[last];
+            life[index] = life[last];
+            inverseMaxLife[index] = inverseMaxLife[last];
+            gravity[index] = gravity[last];
+            drag[index] = drag[last];
+            color[index] = color[last];
+        }
+    }
+
+    /**
+     * Writes each particle as one premultiplied ARGB pixel into a width x height buffer
+     * whose pixel (0, 0) is at world position (originX, originY) and which has one pixel
+     * per scale world pixels. Particles outside the buffer are skipped; a later particle
+     * overwrites an earlier one on the same pixel. Returns the bounding box of the pixels
+     * written as {minX, minY, maxX, maxY} in bounds, or false if none were.
+     */
+    public boolean rasterize(int[] pixels, int width, int height, double originX, double originY,
+                             double scale, int[] bounds) {
+        float inverseScale = (float) (1 / scale);
+        float left = (float) originX;
+        float top = (float) originY;
+        int minX = width;
+        int minY = height;
+        int maxX = -1;
+        int maxY = -1;
+        for (int i = 0; i < count; i++) {
+            int px = (int) ((x[i] - left) * inverseScale);
+            int py = (int) ((y[i] - top) * inverseScale);
+            if (px < 0 || py < 0 || px >= width || py >= height) continue;
+
+            int alpha = (int) (255 * Math.min(1, life[i] * inverseMaxLife[i] * 2));
+            int rgb = color[i];
+            int r = ((rgb >> 16) & 0xFF) * alpha / 255;
+            int g = ((rgb >> 8) & 0xFF) * alpha / 255;
+            int b = (rgb & 0xFF) * alpha / 255;
+            pixels[py * width + px] = (alpha << 24) | (r << 16) | (g << 8) | b;
+
+            minX = Math.min(minX, px);
+            minY = Math.min(minY, py);
+            maxX = Math.max(maxX, px);
+            maxY = Math.max(maxY, py);
+        }
+        bounds[0] = minX;
+        bounds[1] = minY;
+        bounds[2] = maxX;
+        bounds[3] = maxY;
+        return maxX >= 0;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    private float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (seed >>> 40) * 0x1.0p-24f;
+    }
+
+    private static int mix(int a, int b, float t) {
+        int r = (int) (((a >> 16) & 0xFF) + (((b >> 16) & 0xFF) - ((a >> 16) & 0xFF)) * t);
+        int g = (int) (((a >> 8) & 0xFF) + (((b >> 8) & 0xFF) - ((a >> 8) & 0xFF)) * t);
+        int bl = (int) ((a & 0xFF) + ((b & 0xFF) - (a & 0xFF)) * t);
+        return (r << 16) | (g << 8) | bl;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getEmittedCount() {
+        return emittedCount;
+    }
+
+    /**
+     * Particles dropped because the store was full.
+     */
+    public long getOverflowCount() {
+        return overflowCount;
+    }
+}
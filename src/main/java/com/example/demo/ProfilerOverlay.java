@@ -0,0 +1,108 @@
+package com.example.demo;
+
+import com.example.demo.sim.FrameProfiler;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * Table of per-phase times (p50, p99 and max over each profiler's rolling window), input
+ * latency and the quality tier in the top-left corner. Simulation phases are per tick, from the
+ * simulation thread's profiler; render phases and the frame total are per frame. The
+ * text is rebuilt a couple of times a second, not per frame.
+ */
+public class ProfilerOverlay {
+    private static final Font FONT = Font.font("Monospaced", 14);
+    private static final Color BACKGROUND = Color.rgb(0, 0, 0, 0.7);
+    private static final long REFRESH_NANOS = 500_000_000L;
+    private static final double LINE_HEIGHT = 17;
+    private static final double WIDTH = 380;
+
+    private final FrameProfiler profiler;
+    private final FrameProfiler tickProfiler;
+    private final InputLatency inputLatency;
+    private final QualityGovernor qualityGovernor;
+    private final String[] lines = new String[FrameProfiler.Phase.values().length + 5];
+    private long lastRefresh = 0;
+    private boolean visible = false;
+    private boolean drawn = false;
+
+    public ProfilerOverlay(FrameProfiler profiler, FrameProfiler tickProfiler, InputLatency inputLatency,
+                           QualityGovernor qualityGovernor) {
+        this.profiler = profiler;
+        this.tickProfiler = tickProfiler;
+        this.inputLatency = inputLatency;
+        this.qualityGovernor = qualityGovernor;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+        lastRefresh = 0;
+    }
+
+    /**
+     * Has the renderer repaint the overlay's area in the coming frame, so with dirty
+     * rectangles it isn't blended over its own last frame or left behind once hidden.
+     */
+    public void markDirty(WorldRenderer renderer) {
+        if (visible || drawn) {
+            renderer.markDirty(10, 10, WIDTH, height());
+        }
+    }
+
+    private double height() {
+        return lines.length * LINE_HEIGHT + 10;
+    }
+
+    public void draw(GraphicsContext gc, WorldRenderer renderer, long now) {
+        drawn = visible;
+        if (!visible) return;
+
+        if (now - lastRefresh >= REFRESH_NANOS) {
+            lastRefresh = now;
+            refresh(renderer);
+        }
+
+        gc.setFill(BACKGROUND);
+        gc.fillRect(10, 10, WIDTH, height());
+        gc.setFont(FONT);
+        gc.setFill(Color.WHITE);
+        for (int i = 0; i < lines.length; i++) {
+            gc.fillText(lines[i], 18, 10 + (i + 1) * LINE_HEIGHT);
+        }
+    }
+
+    private void refresh(WorldRenderer renderer) {
+        lines[0] = String.format("%-16s %8s %8s %8s", "phase (ms)", "p50", "p99", "max");
+        FrameProfiler.Phase[] phases = FrameProfiler.Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            FrameProfiler.Phase phase = phases[i];
+            lines[i + 1] = row(phase.name().toLowerCase(), isRenderPhase(phase) ? profiler : tickProfiler, phase);
+        }
+        lines[lines.length - 4] = row("tick", tickProfiler, FrameProfiler.Phase.FRAME);
+        lines[lines.length - 3] = String.format("%-16s %8.3f %8.3f %8.3f", "input latency",
+                inputLatency.percentile(50) / 1e6, inputLatency.percentile(99) / 1e6, inputLatency.max() / 1e6);
+        lines[lines.length - 2] = String.format("quality %s (%s), %d changes, %.0f%% late",
+                qualityGovernor.getTier(), qualityGovernor.isAdaptive() ? "auto" : "fixed",
+                qualityGovernor.getTransitionCount(), qualityGovernor.getLateFraction() * 100);
+        int particles = renderer.getParticleLayer().getParticles().size();
+        lines[lines.length - 1] = renderer.isUsingDirtyRects()
+                ? String.format("entities drawn %d, culled %d, particles %d, dirty %.0f%%",
+                        renderer.getDrawnCount(), renderer.getCulledCount(), particles, renderer.getDirtyFraction() * 100)
+                : String.format("entities drawn %d, culled %d, particles %d",
+                        renderer.getDrawnCount(), renderer.getCulledCount(), particles);
+    }
+
+    private static String row(String name, FrameProfiler source, FrameProfiler.Phase phase) {
+        return String.format("%-16s %8.3f %8.3f %8.3f", name,
+                source.percentile(phase, 50) / 1e6, source.percentile(phase, 99) / 1e6, source.max(phase) / 1e6);
+    }
+
+    private static boolean isRenderPhase(FrameProfiler.Phase phase) {
+        return phase.compareTo(FrameProfiler.Phase.RENDER_SCENE) >= 0;
+    }
+}
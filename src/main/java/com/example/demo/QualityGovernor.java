@@ -0,0 +1,158 @@
+package com.example.demo;
+
+/**
+ * Picks a rendering quality tier from recent frame times. Frames are judged in windows
+ * of {@link #WINDOW}: if too many of a window's frames came later than the target frame
+ * time allows, quality drops a tier; it only climbs back after several windows in a row
+ * with no late frames and drawing well under budget, so it doesn't flip back and forth
+ * at the edge of the budget.
+ *
+ * Late frames are judged on the time between frames, which is what the player sees; the
+ * headroom to climb on is judged on the time spent drawing, since with vsync the time
+ * between frames never drops below the refresh interval however little work there is.
+ */
+public class QualityGovernor {
+    public enum Tier {
+        // Everything
+        HIGH,
+        // No glow layers: projectile glow, dash and knockback overlays
+        MEDIUM,
+        // Also spikes as one rectangle and platforms as flat fills
+        LOW
+    }
+
+    public static final int WINDOW = 60;
+    // A frame is late once it takes this many times the target frame time
+    private static final double LATE_FACTOR = 1.5;
+    // Fraction of late frames in a window that drops a tier
+    private static final double DROP_LATE_FRACTION = 0.2;
+    // Drawing must take under this fraction of the budget in every frame to climb a tier
+    private static final double CLIMB_WORK_FRACTION = 0.5;
+    // Windows without a change before climbing again; doubled, up to the maximum, each
+    // time a climb is undone by a drop in the window right after it
+    private static final int CLIMB_DELAY_WINDOWS = 5;
+    private static final int MAX_CLIMB_DELAY_WINDOWS = 60;
+
+    private final long budgetNanos;
+    private final boolean adaptive;
+    private Tier tier;
+
+    private int windowFrames = 0;
+    private int windowLate = 0;
+    private long windowMaxWork = 0;
+    private int windowsSinceChange = 0;
+    private double lastLateFraction = 0;
+    private int climbDelayWindows = CLIMB_DELAY_WINDOWS;
+    private boolean lastChangeWasClimb = false;
+
+    private long transitionCount = 0;
+    private long drops = 0;
+    private long climbs = 0;
+    private Tier previousTier;
+
+    /**
+     * With adaptive false the tier stays at the initial one and frames are only measured.
+     */
+    public QualityGovernor(double targetFps, Tier initial, boolean adaptive) {
+        this.budgetNanos = (long) (1_000_000_000L / targetFps);
+        this.tier = initial;
+        this.previousTier = initial;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Reads render.quality (HIGH, MEDIUM, LOW, or AUTO to adapt starting from HIGH) and
+     * render.targetFps.
+     */
+    public static QualityGovernor fromProperties() {
+        String quality = System.getProperty("render.quality", "AUTO").toUpperCase();
+        double targetFps = Double.parseDouble(System.getProperty("render.targetFps", "60"));
+        if (quality.equals("AUTO")) {
+            return new QualityGovernor(targetFps, Tier.HIGH, true);
+        }
+        return new QualityGovernor(targetFps, Tier.valueOf(quality), false);
+    }
+
+    /**
+     * Records one frame: the time since the previous one started and the time spent
+     * drawing it. Returns true if the tier changed.
+     */
+    public boolean frame(long intervalNanos, long workNanos) {
+        windowFrames++;
+        if (intervalNanos > budgetNanos * LATE_FACTOR) {
+            windowLate++;
+        }
+        windowMaxWork = Math.max(windowMaxWork, workNanos);
+        if (windowFrames < WINDOW) return false;
+
+        lastLateFraction = (double) windowLate / windowFrames;
+        boolean late = lastLateFraction > DROP_LATE_FRACTION;
+        boolean headroom = windowLate == 0 && windowMaxWork < budgetNanos * CLIMB_WORK_FRACTION;
+        windowFrames = 0;
+        windowLate = 0;
+        windowMaxWork = 0;
+        windowsSinceChange++;
+
+        if (!adaptive) return false;
+        if (late && tier != Tier.LOW) {
+            if (lastChangeWasClimb && windowsSinceChange == 1) {
+                climbDelayWindows = Math.min(climbDelayWindows * 2, MAX_CLIMB_DELAY_WINDOWS);
+            }
+            change(Tier.values()[tier.ordinal() + 1], false);
+            drops++;
+            return true;
+        }
+        if (headroom && tier != Tier.HIGH && windowsSinceChange >= climbDelayWindows) {
+            change(Tier.values()[tier.ordinal() - 1], true);
+            climbs++;
+            return true;
+        }
+        return false;
+    }
+
+    private void change(Tier next, boolean climb) {
+        lastChangeWasClimb = climb;
+        previousTier = tier;
+        tier = next;
+        windowsSinceChange = 0;
+        transitionCount++;
+    }
+
+    public Tier getTier() {
+        return tier;
+    }
+
+    /**
+     * Tier before the last change.
+     */
+    public Tier getPreviousTier() {
+        return previousTier;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    public long getTransitionCount() {
+        return transitionCount;
+    }
+
+    public long getDropCount() {
+        return drops;
+    }
+
+    public long getClimbCount() {
+        return climbs;
+    }
+
+    /**
+     * Fraction of late frames in the last full window.
+     */
+    public double getLateFraction() {
+        return lastLateFraction;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.demo;
+
+import com.example.demo.sim.FrameProfiler;
+import com.example.demo.sim.InputLog;
+import com.example.demo.sim.InputSnapshot;
+import com.example.demo.sim.LevelFile;
+import com.example.demo.sim.RenderState;
+import com.example.demo.sim.RenderStateBuffer;
+import com.example.demo.sim.World;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the {@link World} on its own thread at the fixed tick rate, independent of the
+ * display. Input comes in through {@link KeyboardInput}'s queue and, after every batch
+ * of ticks, the world is copied into a {@link RenderState} and published for the
+ * JavaFX thread to draw. Once started, nothing else may touch the world until
+ * {@link #stop()} returns.
+ */
+public class SimulationThread implements Runnable {
+    private final World world;
+    private final KeyboardInput input;
+    private final FixedTimestep timestep;
+    private final long stepNanos;
+    private final RenderStateBuffer renderStates = new RenderStateBuffer();
+    private final FrameProfiler profiler;
+    private final Thread thread;
+    private volatile boolean running = false;
+
+    // -Dinput.record=file saves every tick's input for ReplaySimulation
+    private InputLog.Recorder recorder;
+
+    // Key press applied in a state the renderer skipped, passed on to the next one
+    private long carriedPress = -1;
+    private long reportedLevelLoads = 0;
+    private long reportedTransitions = 0;
+
+    public SimulationThread(World world, KeyboardInput input, FixedTimestep timestep, FrameProfiler profiler) {
+        this.world = world;
+        this.input = input;
+        this.timestep = timestep;
+        this.stepNanos = Math.round(timestep.getStepSeconds() * 1e9);
+        this.profiler = profiler;
+        world.setProfiler(profiler);
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Records every tick to the log until {@link #stop()}, which finishes it.
+     */
+    public void setRecorder(InputLog.Recorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public RenderStateBuffer getRenderStates() {
+        return renderStates;
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Stops ticking and waits for the thread to finish, which closes any input recording
+     * as its last act.
+     */
+    public void stop() {
+        if (thread.getState() == Thread.State.NEW) {
+            // Never started, so the world is still ours to read
+            finishRecording();
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        long last = System.nanoTime();
+        publish(last);
+
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                int steps = timestep.advance((now - last) / 1_000_000_000.0);
+                last = now;
+
+                for (int i = 0; i < steps; i++) {
+                    tick();
+                }
+                if (steps > 0) {
+                    // The latest tick became due this far into the past
+                    publish(now - Math.round(timestep.getAlpha() * stepNanos));
+                    report();
+                }
+
+                LockSupport.parkNanos(Math.round((1 - timestep.getAlpha()) * stepNanos));
+            }
+        } finally {
+            // On this thread, once the last tick is done, so no tick can race the log's end
+            finishRecording();
+        }
+    }
+
+    private void finishRecording() {
+        if (recorder == null) return;
+        try {
+            recorder.finish(world);
+            System.out.printf("Recorded %d ticks of input%n", recorder.getTicks());
+        } catch (IOException e) {
+            System.out.println("Could not finish input log: " + e.getMessage());
+        }
+        recorder = null;
+    }
+
+    private void tick() {
+        profiler.beginFrame();
+        InputSnapshot snapshot = input.snapshot();
+        if (recorder != null) {
+            try {
+                recorder.record(snapshot, timestep.getStepSeconds());
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+
+        world.savePreviousState();
+        world.update(timestep.getStepSeconds(), snapshot);
+
+        if (recorder != null) {
+            try {
+                recorder.afterTick(world);
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+        profiler.endFrame();
+    }
+
+    private void stopRecording(IOException cause) {
+        System.out.println("Input recording stopped: " + cause.getMessage());
+        try {
+            recorder.close();
+        } catch (IOException ignored) {
+        }
+        recorder = null;
+    }
+
+    private void publish(long tickNanos) {
+        long press = input.takeOldestAppliedPress();
+        if (carriedPress >= 0 && (press < 0 || carriedPress < press)) {
+            press = carriedPress;
+        }
+        renderStates.back().capture(world, tickNanos, stepNanos, press);
+
+        RenderState skipped = renderStates.publish();
+        carriedPress = skipped != null ? skipped.getInputPressNanos() : -1;
+    }
+
+    private void report() {
+        if (world.getLevelLoadCount() != reportedLevelLoads) {
+            reportedLevelLoads = world.getLevelLoadCount();
+            LevelFile level = world.getLevelFile();
+            System.out.printf("Loaded level %d from %s in %.2f ms%n",
+                    level.number, level.getSource(), level.getLoadNanos() / 1_000_000.0);
+        }
+        if (world.getTransitionCount() != reportedTransitions) {
+            reportedTransitions = world.getTransitionCount();
+            System.out.printf("Door transition: prepared in %.2f ms (%s), swapped in %.1f us%n",
+                    world.getLastPrefetchNanos() / 1_000_000.0,
+                    world.wasLastTransitionPrefetched() ? "prefetched" : "waited for",
+                    world.getLastSwapNanos() / 1_000.0);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Copies an offscreen canvas into an image, for the layers that paint something once and
+ * blit it afterwards. {@link #JAVAFX} is the canvas's own snapshot, which needs the FX
+ * application thread; tests that render without a running toolkit pass their own.
+ */
+interface Snapshotter {
+    Snapshotter JAVAFX = (canvas, parameters, image) -> canvas.snapshot(parameters, image);
+
+    /**
+     * Copies the canvas into image, or into a new image of the canvas's size if image is null,
+     * and returns the image written.
+     */
+    WritableImage snapshot(Canvas canvas, SnapshotParameters parameters, WritableImage image);
+}
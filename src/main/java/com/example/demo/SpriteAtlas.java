@@ -0,0 +1,133 @@
+package com.example.demo;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every entity sprite frame packed into one image, each scaled once to the size it is
+ * drawn at and stored twice, as loaded and mirrored horizontally. Drawing a frame facing
+ * either way is then a single source-rectangle blit from the same texture, with no
+ * transform to set up and restore.
+ *
+ * Frames are added, the atlas is built once on the FX thread, and frames are drawn by the
+ * index {@link #add} returned.
+ */
+public class SpriteAtlas {
+    // Transparent gap around each frame so smoothing never samples a neighbour
+    private static final int GUTTER = 2;
+    private static final int MAX_WIDTH = 2048;
+
+    private final Snapshotter snapshotter;
+    private final SnapshotParameters snapshotParameters = new SnapshotParameters();
+    private final List<Image> sources = new ArrayList<>();
+    private final List<double[]> sizes = new ArrayList<>();
+
+    // Per frame: where its right-facing copy sits, and its size; the mirrored copy is
+    // immediately to the right
+    private double[] frameX = new double[0];
+    private double[] frameY = new double[0];
+    private double[] frameWidth = new double[0];
+    private double[] frameHeight = new double[0];
+    private WritableImage image;
+
+    public SpriteAtlas() {
+        this(Snapshotter.JAVAFX);
+    }
+
+    SpriteAtlas(Snapshotter snapshotter) {
+        this.snapshotter = snapshotter;
+        snapshotParameters.setFill(Color.TRANSPARENT);
+    }
+
+    /**
+     * Adds a frame to be drawn at the given size and returns its index. Adding the same
+     * image at the same size again returns the existing frame.
+     */
+    public int add(Image source, double width, double height) {
+        if (image != null) {
+            throw new IllegalStateException("atlas already built");
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.get(i) == source && sizes.get(i)[0] == width && sizes.get(i)[1] == height) {
+                return i;
+            }
+        }
+        sources.add(source);
+        sizes.add(new double[]{width, height});
+        return sources.size() - 1;
+    }
+
+    /**
+     * Packs the frames into rows and paints them, scaled and mirrored, into the atlas.
+     */
+    public void build() {
+        int count = sources.size();
+        frameX = new double[count];
+        frameY = new double[count];
+        frameWidth = new double[count];
+        frameHeight = new double[count];
+
+        double x = GUTTER;
+        double y = GUTTER;
+        double rowHeight = 0;
+        double atlasWidth = 0;
+        for (int i = 0; i < count; i++) {
+            double width = Math.ceil(sizes.get(i)[0]);
+            double height = Math.ceil(sizes.get(i)[1]);
+            if (x > GUTTER && x + 2 * (width + GUTTER) > MAX_WIDTH) {
+                x = GUTTER;
+                y += rowHeight + GUTTER;
+                rowHeight = 0;
+            }
+            frameX[i] = x;
+            frameY[i] = y;
+            frameWidth[i] = width;
+            frameHeight[i] = height;
+            x += 2 * (width + GUTTER);
+            rowHeight = Math.max(rowHeight, height);
+            atlasWidth = Math.max(atlasWidth, x);
+        }
+
+        Canvas canvas = new Canvas(Math.max(atlasWidth, 1), Math.max(y + rowHeight + GUTTER, 1));
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        for (int i = 0; i < count; i++) {
+            Image source = sources.get(i);
+            g.drawImage(source, frameX[i], frameY[i], frameWidth[i], frameHeight[i]);
+
+            g.save();
+            g.translate(frameX[i] + 2 * frameWidth[i] + GUTTER, frameY[i]);
+            g.scale(-1, 1);
+            g.drawImage(source, 0, 0, frameWidth[i], frameHeight[i]);
+            g.restore();
+        }
+        image = snapshotter.snapshot(canvas, snapshotParameters, null);
+        sources.clear();
+    }
+
+    /**
+     * Draws a frame at (x, y), stretched to the given size; mirrored flips it horizontally.
+     */
+    public void draw(GraphicsContext gc, int frame, boolean mirrored, double x, double y, double width, double height) {
+        double sourceX = mirrored ? frameX[frame] + frameWidth[frame] + GUTTER : frameX[frame];
+        gc.drawImage(image, sourceX, frameY[frame], frameWidth[frame], frameHeight[frame], x, y, width, height);
+    }
+
+    public boolean isBuilt() {
+        return image != null;
+    }
+
+    public int getFrameCount() {
+        return frameX.length;
+    }
+
+    public Image getImage() {
+        return image;
+    }
+}
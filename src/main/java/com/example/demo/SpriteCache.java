@@ -0,0 +1,169 @@
+package com.example.demo;
+
+import javafx.scene.image.Image;
+
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared cache for the sprites under /images/. Each file is decoded once and the same
+ * Image handle is handed to every entity that asks for it. Handles are reference counted;
+ * sprites nobody holds stay cached until the memory budget forces them out, oldest first.
+ */
+public final class SpriteCache {
+    private static final String IMAGE_ROOT = "/images/";
+    private static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    private static class Entry {
+        final String name;
+        final Image image;
+        final long bytes;
+        int refCount;
+
+        Entry(String name, Image image) {
+            this.name = name;
+            this.image = image;
+            this.bytes = (long) image.getWidth() * (long) image.getHeight() * 4;
+        }
+    }
+
+    // Access-ordered, so iteration starts at the least recently used sprite
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<Image, Entry> entriesByImage = new IdentityHashMap<>();
+    private static final Set<String> missing = new HashSet<>();
+
+    private static long memoryBudget = Long.getLong("sprites.budget", DEFAULT_MEMORY_BUDGET);
+    private static long bytesCached = 0;
+    private static long bytesDecoded = 0;
+    private static long hits = 0;
+    private static long misses = 0;
+    // Lookups of files already known not to exist; neither hits nor decodes
+    private static long missingLookups = 0;
+    private static long evictions = 0;
+
+    private SpriteCache() {
+    }
+
+    /**
+     * Returns the shared image for a file under /images/, decoding it on first use.
+     * Returns null if the file does not exist or cannot be decoded; callers fall back
+     * to their drawn graphics in that case. Every non-null result must be given back
+     * with {@link #release(Image)}.
+     */
+    public static synchronized Image acquire(String name) {
+        Entry entry = entries.get(name);
+        if (entry != null) {
+            hits++;
+            entry.refCount++;
+            return entry.image;
+        }
+
+        if (missing.contains(name)) {
+            missingLookups++;
+            return null;
+        }
+
+        misses++;
+        Image image = decode(name);
+        if (image == null) {
+            missing.add(name);
+            return null;
+        }
+
+        entry = new Entry(name, image);
+        entry.refCount = 1;
+        entries.put(name, entry);
+        entriesByImage.put(image, entry);
+        bytesCached += entry.bytes;
+        bytesDecoded += entry.bytes;
+        trim();
+        return image;
+    }
+
+    public static synchronized void release(Image image) {
+        if (image == null) return;
+
+        Entry entry = entriesByImage.get(image);
+        if (entry == null || entry.refCount == 0) return;
+
+        entry.refCount--;
+        if (entry.refCount == 0) {
+            trim();
+        }
+    }
+
+    private static Image decode(String name) {
+        try (InputStream stream = SpriteCache.class.getResourceAsStream(IMAGE_ROOT + name)) {
+            if (stream == null) {
+                return null;
+            }
+            Image image = new Image(stream);
+            return image.isError() ? null : image;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Drops unreferenced sprites, least recently used first, until we are back under budget.
+    // Sprites that are still held are never evicted, even if that leaves us over budget.
+    private static void trim() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (bytesCached > memoryBudget && it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.refCount == 0) {
+                it.remove();
+                entriesByImage.remove(entry.image);
+                bytesCached -= entry.bytes;
+                evictions++;
+            }
+        }
+    }
+
+    public static synchronized void setMemoryBudget(long bytes) {
+        memoryBudget = bytes;
+        trim();
+    }
+
+    public static synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized long getMissingLookups() {
+        return missingLookups;
+    }
+
+    public static synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public static synchronized long getBytesCached() {
+        return bytesCached;
+    }
+
+    public static synchronized long getBytesDecoded() {
+        return bytesDecoded;
+    }
+
+    public static synchronized int getCachedCount() {
+        return entries.size();
+    }
+
+    public static synchronized String getStatsSummary() {
+        return String.format("sprites: %d cached, %d hits, %d misses, %d missing-file lookups, %d evictions, "
+                        + "%d KB cached, %d KB decoded",
+                entries.size(), hits, misses, missingLookups, evictions, bytesCached / 1024, bytesDecoded / 1024);
+    }
+}
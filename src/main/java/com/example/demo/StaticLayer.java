@@ -0,0 +1,185 @@
+package com.example.demo;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Offscreen copy of everything that doesn't move between level loads: background,
+ * walls, platforms, spikes and the door. The world is cut into square tiles that are
+ * painted and snapshotted the first time they scroll into view, then blitted each frame
+ * until the level changes. Only the most recently used tiles are kept, so a long level
+ * costs no more memory than a few screens' worth.
+ */
+public class StaticLayer {
+    public static final int TILE_SIZE = 512;
+
+    /**
+     * Paints the static scene in world coordinates. The context is already translated to
+     * the tile, and only the given world rectangle will end up in it.
+     */
+    public interface Painter {
+        void paint(GraphicsContext g, double x, double y, double width, double height);
+    }
+
+    private final Canvas canvas = new Canvas(TILE_SIZE, TILE_SIZE);
+    private final Snapshotter snapshotter;
+    private final SnapshotParameters snapshotParameters = new SnapshotParameters();
+    private final int maxTiles;
+    private final ArrayDeque<WritableImage> spareImages = new ArrayDeque<>();
+    private final LinkedHashMap<Long, WritableImage> tiles = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, WritableImage> eldest) {
+            if (size() > maxTiles) {
+                spareImages.push(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // Boxed map key per tile, made once per level so looking tiles up doesn't box every frame
+    private Long[] keys = new Long[0];
+    private int columns;
+
+    private long levelVersion = -1;
+    private double worldWidth;
+    private double worldHeight;
+    private long rebuildCount = 0;
+    private int tilesDrawn = 0;
+
+    public StaticLayer() {
+        this(Snapshotter.JAVAFX);
+    }
+
+    StaticLayer(Snapshotter snapshotter) {
+        this(Integer.getInteger("render.staticTiles", 64), snapshotter);
+    }
+
+    public StaticLayer(int maxTiles) {
+        this(maxTiles, Snapshotter.JAVAFX);
+    }
+
+    StaticLayer(int maxTiles, Snapshotter snapshotter) {
+        this.snapshotter = snapshotter;
+        this.maxTiles = Math.max(maxTiles, 1);
+        snapshotParameters.setFill(Color.TRANSPARENT);
+    }
+
+    /**
+     * Draws the tiles covering the camera's view, painting any that aren't cached yet.
+     * Expects gc to be in world coordinates.
+     */
+    public void draw(GraphicsContext gc, Camera camera, double width, double height,
+                     long currentLevelVersion, Painter painter) {
+        if (levelVersion != currentLevelVersion || worldWidth != width || worldHeight != height) {
+            invalidate();
+            levelVersion = currentLevelVersion;
+            worldWidth = width;
+            worldHeight = height;
+            columns = (int) Math.ceil(width / TILE_SIZE);
+            int tileCount = columns * (int) Math.ceil(height / TILE_SIZE);
+            if (keys.length < tileCount) {
+                keys = new Long[tileCount];
+            }
+        }
+
+        int lastColumn = (int) Math.ceil(width / TILE_SIZE) - 1;
+        int lastRow = (int) Math.ceil(height / TILE_SIZE) - 1;
+        int column0 = Math.max(0, (int) Math.floor(camera.getX() / TILE_SIZE));
+        int row0 = Math.max(0, (int) Math.floor(camera.getY() / TILE_SIZE));
+        int column1 = Math.min(lastColumn, (int) Math.floor((camera.getX() + camera.getViewportWidth() - 1) / TILE_SIZE));
+        int row1 = Math.min(lastRow, (int) Math.floor((camera.getY() + camera.getViewportHeight() - 1) / TILE_SIZE));
+
+        tilesDrawn = 0;
+        for (int row = row0; row <= row1; row++) {
+            for (int column = column0; column <= column1; column++) {
+                gc.drawImage(tile(column, row, painter), column * TILE_SIZE, row * TILE_SIZE);
+                tilesDrawn++;
+            }
+        }
+    }
+
+    /**
+     * Copies the part of the cached scene inside a world rectangle onto gc, for repainting
+     * a small region without redrawing the whole view. Expects gc to be in world
+     * coordinates and {@link #draw} to have been called for the current level.
+     */
+    public void drawRegion(GraphicsContext gc, double x, double y, double width, double height, Painter painter) {
+        int column0 = Math.max(0, (int) Math.floor(x / TILE_SIZE));
+        int row0 = Math.max(0, (int) Math.floor(y / TILE_SIZE));
+        int column1 = Math.min((int) Math.ceil(worldWidth / TILE_SIZE) - 1, (int) Math.floor((x + width - 1) / TILE_SIZE));
+        int row1 = Math.min((int) Math.ceil(worldHeight / TILE_SIZE) - 1, (int) Math.floor((y + height - 1) / TILE_SIZE));
+
+        for (int row = row0; row <= row1; row++) {
+            for (int column = column0; column <= column1; column++) {
+                double tileX = column * TILE_SIZE;
+                double tileY = row * TILE_SIZE;
+                double x0 = Math.max(x, tileX);
+                double y0 = Math.max(y, tileY);
+                double x1 = Math.min(x + width, tileX + TILE_SIZE);
+                double y1 = Math.min(y + height, tileY + TILE_SIZE);
+                gc.drawImage(tile(column, row, painter), x0 - tileX, y0 - tileY, x1 - x0, y1 - y0, x0, y0, x1 - x0, y1 - y0);
+            }
+        }
+    }
+
+    private WritableImage tile(int column, int row, Painter painter) {
+        int index = row * columns + column;
+        Long key = keys[index];
+        if (key == null || key != (((long) row << 32) | column)) {
+            key = ((long) row << 32) | column;
+            keys[index] = key;
+        }
+        WritableImage tile = tiles.get(key);
+        if (tile == null) {
+            tile = bake(column, row, painter);
+            tiles.put(key, tile);
+        }
+        return tile;
+    }
+
+    private WritableImage bake(int column, int row, Painter painter) {
+        double tileX = column * TILE_SIZE;
+        double tileY = row * TILE_SIZE;
+
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.clearRect(0, 0, TILE_SIZE, TILE_SIZE);
+        g.save();
+        g.translate(-tileX, -tileY);
+        painter.paint(g, tileX, tileY, TILE_SIZE, TILE_SIZE);
+        g.restore();
+
+        WritableImage image = spareImages.isEmpty() ? new WritableImage(TILE_SIZE, TILE_SIZE) : spareImages.pop();
+        snapshotter.snapshot(canvas, snapshotParameters, image);
+        rebuildCount++;
+        return image;
+    }
+
+    public void invalidate() {
+        spareImages.addAll(tiles.values());
+        tiles.clear();
+        levelVersion = -1;
+    }
+
+    /**
+     * Total number of tiles painted so far.
+     */
+    public long getRebuildCount() {
+        return rebuildCount;
+    }
+
+    public int getTilesDrawn() {
+        return tilesDrawn;
+    }
+
+    public int getCachedTileCount() {
+        return tiles.size();
+    }
+}
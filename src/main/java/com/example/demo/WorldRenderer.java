@@ -0,0 +1,841 @@
+package com.example.demo;
+
+import com.example.demo.sim.Door;
+import com.example.demo.sim.EnemyStore;
+import com.example.demo.sim.FrameProfiler;
+import com.example.demo.sim.Platform;
+import com.example.demo.sim.Player;
+import com.example.demo.sim.ProjectilePool;
+import com.example.demo.sim.RenderState;
+import com.example.demo.sim.Spike;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws a {@link RenderState} onto a canvas. Owns every sprite handle the game uses, so
+ * the simulation itself never touches JavaFX.
+ *
+ * With -Drender.dirtyRects=true, frames where the camera hasn't moved only repaint the
+ * screen rectangles that moving entities covered last frame or cover now, plus the HUD
+ * and anything marked with {@link #markDirty}: the background is restored there from the
+ * static layer and the entities and HUD drawn over it. Anything else (a scroll, a new
+ * level, game over, particles on screen, or a dirty area above render.dirtyThreshold of
+ * the screen) redraws the whole frame.
+ */
+public class WorldRenderer {
+    private static final Color PROJECTILE_GLOW = Color.rgb(100, 200, 255, 0.3);
+    private static final Color PROJECTILE_BODY = Color.rgb(150, 220, 255);
+    private static final Color PROJECTILE_CORE = Color.rgb(200, 240, 255);
+    private static final Color BACKGROUND_FILL = Color.rgb(20, 20, 30);
+    private static final Color WALL_FILL = Color.rgb(40, 40, 50);
+    private static final Color WALL_EDGE = Color.rgb(80, 80, 100);
+    private static final Color PLATFORM_FILL = Color.rgb(60, 60, 80);
+    private static final Color PLATFORM_EDGE = Color.rgb(100, 100, 120);
+    private static final Color SPIKE_FILL = Color.rgb(200, 50, 50);
+    private static final Color SPIKE_EDGE = Color.rgb(255, 100, 100, 0.5);
+    private static final Color DOOR_FRAME = Color.rgb(80, 80, 90);
+    private static final Color DOOR_PANEL = Color.rgb(40, 30, 20);
+    private static final Color DOOR_LINES = Color.rgb(30, 20, 10);
+    private static final Color DOOR_KNOB = Color.rgb(150, 120, 80);
+    private static final Color DOOR_HIGHLIGHT = Color.rgb(100, 200, 255, 0.8);
+    private static final Color DOOR_PROMPT = Color.rgb(255, 255, 255);
+    private static final Color ENEMY_FILL = Color.rgb(120, 40, 80);
+    private static final Color ENEMY_EDGE = Color.rgb(180, 60, 120);
+    private static final Color ENEMY_EYES = Color.rgb(255, 50, 50);
+    private static final Color ENEMY_SPIKE = Color.rgb(200, 80, 140);
+    private static final Color DASH_GLOW = Color.rgb(0, 255, 255, 0.3);
+    private static final Color KNOCKBACK_GLOW = Color.rgb(255, 150, 0, 0.4);
+    private static final Color PLAYER_DAMAGED = Color.rgb(255, 100, 100);
+    private static final Color DAMAGE_FLASH = Color.rgb(255, 100, 100, 0.5);
+    private static final Color PLAYER_EYE = Color.rgb(100, 150, 255);
+    private static final Color GAME_OVER_SHADE = Color.rgb(0, 0, 0, 0.7);
+    private static final Color GAME_OVER_TEXT = Color.rgb(220, 50, 50);
+    private static final Font DOOR_PROMPT_FONT = Font.font("Arial", 14);
+    private static final Font GAME_OVER_FONT = Font.font("Arial", FontWeight.BOLD, 100);
+    private static final Font RESTART_FONT = Font.font("Arial", FontWeight.NORMAL, 40);
+    // Past this many rectangles a full redraw costs fewer draw calls
+    private static final int MAX_DIRTY_RECTS = 256;
+
+    private final GraphicsContext gc;
+    private final Camera camera = new Camera();
+    private final StaticLayer staticLayer;
+    private boolean useStaticLayer = !"false".equals(System.getProperty("render.staticLayer"));
+    private final HudLayer hudLayer;
+    private boolean useHudLayer = !"false".equals(System.getProperty("render.hudLayer"));
+    private boolean useDirtyRects = Boolean.getBoolean("render.dirtyRects");
+    private QualityGovernor.Tier quality = QualityGovernor.Tier.HIGH;
+    private final ParticleLayer particles =
+            new ParticleLayer(new ParticleSystem(Integer.getInteger("render.maxParticles", 1 << 17)));
+    private long lastRenderNanos = 0;
+    private final double dirtyThreshold = Double.parseDouble(System.getProperty("render.dirtyThreshold", "0.5"));
+
+    private Image backgroundImage;
+    private Image platformImage;
+    private Image spikeImage;
+    private Image doorImage;
+    private Image enemyImage;
+
+    private Image playerIdleImage;
+    private Image playerWalk1Image;
+    private Image playerWalk2Image;
+    private Image playerWalk3Image;
+    private Image playerAttackImage;
+    private Image playerJumpImage;
+
+    // Entity frames, packed with mirrored copies on the first frame drawn, when the
+    // player's sprite size is known; -1 where there is no image
+    private final SpriteAtlas atlas;
+    private int enemyFrame = -1;
+    private int playerIdleFrame = -1;
+    private int playerAttackFrame;
+    private int playerJumpFrame;
+    private final int[] playerWalkFrames = new int[3];
+
+    private final List<Image> acquiredImages = new ArrayList<>();
+    private FrameProfiler profiler = new FrameProfiler();
+
+    // Interpolated positions of the projectiles that survived culling this frame
+    private double[] visibleX = new double[256];
+    private double[] visibleY = new double[256];
+    private int drawnCount = 0;
+    private int culledCount = 0;
+
+    // Scratch space for the drawn fallback graphics' triangles
+    private final double[] polygonX = new double[3];
+    private final double[] polygonY = new double[3];
+
+    // Paints the static scene of the state being rendered, for the static layer's tiles;
+    // kept as one instance rather than a lambda capturing each frame's state
+    private RenderState paintedState;
+    private final StaticLayer.Painter staticPainter =
+            (g, x, y, width, height) -> drawStaticScene(g, paintedState, x, y, width, height);
+
+    // Screen boxes of the moving entities drawn last frame and this frame, and what has to
+    // be repainted this frame; marked holds extra rectangles from markDirty
+    private DirtyRects previousBoxes = new DirtyRects();
+    private DirtyRects currentBoxes = new DirtyRects();
+    private final DirtyRects dirty = new DirtyRects();
+    private final DirtyRects marked = new DirtyRects();
+    private boolean hasLastFrame = false;
+    private double lastCameraX;
+    private double lastCameraY;
+    private double lastViewportWidth;
+    private double lastViewportHeight;
+    private long lastLevelVersion;
+    private boolean lastGameOver;
+    private boolean lastFramePartial = false;
+    private double dirtyFraction = 1;
+    private long fullRedrawCount = 0;
+    private long partialRedrawCount = 0;
+
+    public WorldRenderer(GraphicsContext gc) {
+        this(gc, Snapshotter.JAVAFX);
+    }
+
+    /**
+     * A renderer whose cached layers are copied out of their offscreen canvases by the
+     * given snapshotter rather than by JavaFX, so it can draw without a running toolkit.
+     */
+    WorldRenderer(GraphicsContext gc, Snapshotter snapshotter) {
+        this.gc = gc;
+        staticLayer = new StaticLayer(snapshotter);
+        hudLayer = new HudLayer(snapshotter);
+        atlas = new SpriteAtlas(snapshotter);
+        loadImages();
+    }
+
+    private void loadImages() {
+        backgroundImage = acquireImage("background.png", null);
+        if (backgroundImage == null) {
+            System.out.println("Could not load background image, using default color");
+        }
+        platformImage = acquireImage("platform.png", null);
+        if (platformImage == null) {
+            System.out.println("Could not load platform image, using default graphics");
+        }
+        spikeImage = acquireImage("spike.png", null);
+        if (spikeImage == null) {
+            System.out.println("Could not load spike image, using default graphics");
+        }
+        doorImage = acquireImage("door.png", null);
+        if (doorImage == null) {
+            System.out.println("Could not load door image, using default graphics");
+        }
+        enemyImage = acquireImage("enemy.png", null);
+        if (enemyImage == null) {
+            System.out.println("Could not load enemy image, using default graphics");
+        }
+
+        playerIdleImage = acquireImage("player_idle.png", null);
+        if (playerIdleImage == null) {
+            System.out.println("Could not load player images, using default graphics");
+            return;
+        }
+        playerWalk1Image = acquireImage("player_walk1.png", playerIdleImage);
+        playerWalk2Image = acquireImage("player_walk2.png", playerWalk1Image);
+        playerWalk3Image = acquireImage("player_walk3.png", playerWalk2Image);
+        playerAttackImage = acquireImage("player_attack.png", playerIdleImage);
+        playerJumpImage = acquireImage("player_jump.png", playerIdleImage);
+    }
+
+    private Image acquireImage(String name, Image fallback) {
+        Image image = SpriteCache.acquire(name);
+        if (image == null) {
+            return fallback;
+        }
+        acquiredImages.add(image);
+        return image;
+    }
+
+    private void buildAtlas(Player player) {
+        if (enemyImage != null) {
+            enemyFrame = atlas.add(enemyImage, EnemyStore.WIDTH, EnemyStore.HEIGHT);
+        }
+        if (playerIdleImage != null) {
+            double width = player.getRenderWidth();
+            double height = player.getRenderHeight();
+            playerIdleFrame = atlas.add(playerIdleImage, width, height);
+            playerWalkFrames[0] = atlas.add(playerWalk1Image, width, height);
+            playerWalkFrames[1] = atlas.add(playerWalk2Image, width, height);
+            playerWalkFrames[2] = atlas.add(playerWalk3Image, width, height);
+            playerAttackFrame = atlas.add(playerAttackImage, width, height);
+            playerJumpFrame = atlas.add(playerJumpImage, width, height);
+        }
+        atlas.build();
+    }
+
+    public ParticleLayer getParticleLayer() {
+        return particles;
+    }
+
+    public SpriteAtlas getAtlas() {
+        return atlas;
+    }
+
+    public void dispose() {
+        for (Image image : acquiredImages) {
+            SpriteCache.release(image);
+        }
+        acquiredImages.clear();
+    }
+
+    public void setUseStaticLayer(boolean useStaticLayer) {
+        this.useStaticLayer = useStaticLayer;
+        staticLayer.invalidate();
+    }
+
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public void setUseHudLayer(boolean useHudLayer) {
+        this.useHudLayer = useHudLayer;
+    }
+
+    /**
+     * Changing to or from LOW repaints the static layer, which draws platforms and spikes
+     * differently there.
+     */
+    public void setQuality(QualityGovernor.Tier quality) {
+        if ((quality == QualityGovernor.Tier.LOW) != (this.quality == QualityGovernor.Tier.LOW)) {
+            staticLayer.invalidate();
+            hasLastFrame = false;
+        }
+        this.quality = quality;
+    }
+
+    public QualityGovernor.Tier getQuality() {
+        return quality;
+    }
+
+    public void setUseDirtyRects(boolean useDirtyRects) {
+        this.useDirtyRects = useDirtyRects;
+        hasLastFrame = false;
+    }
+
+    public boolean isUsingDirtyRects() {
+        return useDirtyRects;
+    }
+
+    /**
+     * Marks a screen rectangle to be repainted in the next frame, for things drawn over the
+     * scene by someone else (the profiler overlay) that the renderer doesn't track.
+     */
+    public void markDirty(double x, double y, double width, double height) {
+        marked.add(x, y, width, height);
+    }
+
+    public HudLayer getHudLayer() {
+        return hudLayer;
+    }
+
+    public StaticLayer getStaticLayer() {
+        return staticLayer;
+    }
+
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Moving entities (player, enemies, projectiles, door prompt) drawn in the last frame.
+     */
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+
+    /**
+     * Moving entities skipped in the last frame because they were outside the viewport.
+     */
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    /**
+     * Whether the last frame only repainted its dirty rectangles.
+     */
+    public boolean wasLastFramePartial() {
+        return lastFramePartial;
+    }
+
+    /**
+     * Rectangles repainted in the last frame, or 0 if it was a full redraw.
+     */
+    public int getDirtyRectCount() {
+        return lastFramePartial ? dirty.size() : 0;
+    }
+
+    /**
+     * Area the last frame repainted as a fraction of the screen; 1 for a full redraw.
+     */
+    public double getDirtyFraction() {
+        return dirtyFraction;
+    }
+
+    public long getFullRedrawCount() {
+        return fullRedrawCount;
+    }
+
+    public long getPartialRedrawCount() {
+        return partialRedrawCount;
+    }
+
+    public void render(RenderState state, double alpha) {
+        double viewportWidth = gc.getCanvas().getWidth();
+        double viewportHeight = gc.getCanvas().getHeight();
+        double worldWidth = state.getWidth();
+        double worldHeight = state.getHeight();
+
+        Player player = state.getPlayer();
+        double playerX = player.getPrevX() + (player.getX() - player.getPrevX()) * alpha;
+        double playerY = player.getPrevY() + (player.getY() - player.getPrevY()) * alpha;
+        camera.setViewport(viewportWidth, viewportHeight);
+        camera.follow(playerX + player.getWidth() / 2, playerY + player.getHeight() / 2, worldWidth, worldHeight);
+
+        if (!atlas.isBuilt()) {
+            buildAtlas(player);
+        }
+        paintedState = state;
+
+        profiler.mark();
+        drawnCount = 0;
+        culledCount = 0;
+
+        // Particles move with the frame rate; a long stall is not played back all at once
+        long now = System.nanoTime();
+        double frameTime = lastRenderNanos == 0 ? 0 : Math.min((now - lastRenderNanos) / 1e9, 0.1);
+        lastRenderNanos = now;
+        particles.update(state, frameTime, quality == QualityGovernor.Tier.HIGH ? 1
+                : quality == QualityGovernor.Tier.MEDIUM ? 0.5 : 0.25);
+        profiler.lap(FrameProfiler.Phase.RENDER_PARTICLES);
+
+        lastFramePartial = false;
+        if (useDirtyRects) {
+            collectEntityBoxes(state, alpha);
+            boolean canRepaintPart = hasLastFrame && useStaticLayer && useHudLayer && particles.isIdle()
+                    && !state.isGameOver() && !lastGameOver
+                    && camera.getX() == lastCameraX && camera.getY() == lastCameraY
+                    && viewportWidth == lastViewportWidth && viewportHeight == lastViewportHeight
+                    && state.getLevelVersion() == lastLevelVersion;
+            hasLastFrame = true;
+            lastCameraX = camera.getX();
+            lastCameraY = camera.getY();
+            lastViewportWidth = viewportWidth;
+            lastViewportHeight = viewportHeight;
+            lastLevelVersion = state.getLevelVersion();
+            lastGameOver = state.isGameOver();
+
+            if (canRepaintPart) {
+                boolean panelChanged = hudLayer.refresh(state);
+                dirty.clear();
+                dirty.addAll(previousBoxes);
+                dirty.addAll(currentBoxes);
+                dirty.addAll(marked);
+                hudLayer.addDirty(dirty, viewportWidth, viewportHeight, panelChanged);
+                lastFramePartial = dirty.size() <= MAX_DIRTY_RECTS
+                        && dirty.getArea() <= dirtyThreshold * viewportWidth * viewportHeight;
+            }
+            DirtyRects swap = previousBoxes;
+            previousBoxes = currentBoxes;
+            currentBoxes = swap;
+            marked.clear();
+
+            if (lastFramePartial) {
+                dirtyFraction = dirty.getArea() / (viewportWidth * viewportHeight);
+                partialRedrawCount++;
+                renderDirty(state, alpha, viewportWidth, viewportHeight);
+                return;
+            }
+        }
+        dirtyFraction = 1;
+        fullRedrawCount++;
+
+        // Anything outside the world (a world smaller than the canvas) stays this colour
+        gc.setFill(Color.BLACK);
+        gc.fillRect(0, 0, viewportWidth, viewportHeight);
+
+        gc.setTransform(1, 0, 0, 1, -camera.getX(), -camera.getY());
+
+        if (useStaticLayer) {
+            staticLayer.draw(gc, camera, worldWidth, worldHeight, state.getLevelVersion(),
+                    staticPainter);
+        } else {
+            drawStaticScene(gc, state, camera.getX(), camera.getY(), viewportWidth, viewportHeight);
+        }
+        profiler.lap(FrameProfiler.Phase.RENDER_SCENE);
+
+        drawEntities(state, alpha);
+
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        profiler.lap(FrameProfiler.Phase.RENDER_ENTITIES);
+
+        particles.draw(gc, camera.getX(), camera.getY(), viewportWidth, viewportHeight);
+        profiler.lap(FrameProfiler.Phase.RENDER_PARTICLES);
+
+        if (useHudLayer) {
+            hudLayer.draw(gc, state, viewportWidth, viewportHeight);
+        } else {
+            hudLayer.drawUncached(gc, state, viewportWidth, viewportHeight);
+        }
+
+        if (state.isGameOver()) {
+            drawGameOver(viewportWidth, viewportHeight);
+        }
+        profiler.lap(FrameProfiler.Phase.RENDER_HUD);
+    }
+
+    // Restores the background under each dirty rectangle, then draws every moving entity
+    // and the HUD parts that were touched. Every entity's box is dirty, so all of them are
+    // drawn onto freshly restored background, never over their own previous pixels.
+    private void renderDirty(RenderState state, double alpha, double viewportWidth, double viewportHeight) {
+        double worldWidth = state.getWidth();
+        double worldHeight = state.getHeight();
+
+        gc.setTransform(1, 0, 0, 1, -camera.getX(), -camera.getY());
+
+        gc.setFill(Color.BLACK);
+        for (int i = 0; i < dirty.size(); i++) {
+            double x = dirty.getX(i) + camera.getX();
+            double y = dirty.getY(i) + camera.getY();
+            if (x < 0 || y < 0 || x + dirty.getWidth(i) > worldWidth || y + dirty.getHeight(i) > worldHeight) {
+                gc.fillRect(x, y, dirty.getWidth(i), dirty.getHeight(i));
+            }
+            staticLayer.drawRegion(gc, x, y, dirty.getWidth(i), dirty.getHeight(i),
+                    staticPainter);
+        }
+        profiler.lap(FrameProfiler.Phase.RENDER_SCENE);
+
+        drawEntities(state, alpha);
+
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        profiler.lap(FrameProfiler.Phase.RENDER_ENTITIES);
+
+        hudLayer.drawDirty(gc, dirty, viewportWidth, viewportHeight);
+        profiler.lap(FrameProfiler.Phase.RENDER_HUD);
+    }
+
+    // Screen boxes the entities will cover this frame, matching what the render methods draw
+    private void collectEntityBoxes(RenderState state, double alpha) {
+        currentBoxes.clear();
+
+        Door door = state.getDoor();
+        if (state.isDoorHighlighted()) {
+            addEntityBox(door.x - 10, door.y - 30, door.width + 130, door.height + 30);
+        }
+
+        EnemyStore enemies = state.getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            if (!enemies.isAlive(i)) continue;
+            double x = enemies.getPrevX(i) + (enemies.getX(i) - enemies.getPrevX(i)) * alpha;
+            double y = enemies.getPrevY(i) + (enemies.getY(i) - enemies.getPrevY(i)) * alpha;
+            addEntityBox(x, y, EnemyStore.WIDTH, EnemyStore.HEIGHT);
+        }
+
+        ProjectilePool projectiles = state.getProjectiles();
+        for (int i = 0; i < projectiles.size(); i++) {
+            double x = projectiles.getPrevX(i) + (projectiles.getX(i) - projectiles.getPrevX(i)) * alpha;
+            double y = projectiles.getPrevY(i) + (projectiles.getY(i) - projectiles.getPrevY(i)) * alpha;
+            addEntityBox(x - 6, y - 6, ProjectilePool.WIDTH + 12, ProjectilePool.HEIGHT + 12);
+        }
+
+        Player player = state.getPlayer();
+        double drawX = player.getPrevX() + (player.getX() - player.getPrevX()) * alpha;
+        double drawY = player.getPrevY() + (player.getY() - player.getPrevY()) * alpha;
+        double renderX = drawX - (player.getRenderWidth() - player.getWidth()) / 2;
+        double renderY = drawY - (player.getRenderHeight() - player.getHeight());
+        addEntityBox(renderX - 8, renderY - 8, player.getRenderWidth() + 16, player.getRenderHeight() + 16);
+    }
+
+    private void addEntityBox(double x, double y, double width, double height) {
+        if (camera.isVisible(x, y, width, height)) {
+            currentBoxes.add(x - camera.getX(), y - camera.getY(), width, height);
+        }
+    }
+
+    // Everything that only changes when a level is loaded, limited to the given world rectangle
+    private void drawStaticScene(GraphicsContext gc, RenderState state, double viewX, double viewY,
+                                 double viewWidth, double viewHeight) {
+        double worldWidth = state.getWidth();
+        double worldHeight = state.getHeight();
+
+        if (backgroundImage != null) {
+            gc.drawImage(backgroundImage, 0, 0, worldWidth, worldHeight);
+        } else {
+            gc.setFill(BACKGROUND_FILL);
+            double x0 = Math.max(viewX, 0);
+            double y0 = Math.max(viewY, 0);
+            gc.fillRect(x0, y0, Math.min(viewX + viewWidth, worldWidth) - x0, Math.min(viewY + viewHeight, worldHeight) - y0);
+        }
+
+        gc.setFill(WALL_FILL);
+        gc.fillRect(0, 0, 5, worldHeight);
+        gc.fillRect(worldWidth - 5, 0, 5, worldHeight);
+
+        gc.setStroke(WALL_EDGE);
+        gc.setLineWidth(3);
+        gc.strokeLine(5, 0, 5, worldHeight);
+        gc.strokeLine(worldWidth - 5, 0, worldWidth - 5, worldHeight);
+
+        for (Platform platform : state.getPlatforms()) {
+            // Pad by the stroke width so outlines on the edge of the view aren't lost
+            if (overlaps(platform.x - 2, platform.y - 2, platform.width + 4, platform.height + 4,
+                    viewX, viewY, viewWidth, viewHeight)) {
+                renderPlatform(gc, platform);
+            }
+        }
+
+        for (Spike spike : state.getSpikes()) {
+            if (overlaps(spike.x - 2, spike.y - 2, spike.width + 4, spike.height + 4,
+                    viewX, viewY, viewWidth, viewHeight)) {
+                renderSpike(gc, spike);
+            }
+        }
+
+        Door door = state.getDoor();
+        if (overlaps(door.x, door.y, door.width, door.height, viewX, viewY, viewWidth, viewHeight)) {
+            renderDoor(gc, door);
+        }
+    }
+
+    private void drawEntities(RenderState state, double alpha) {
+        renderDoorHighlight(state.getDoor(), state.isDoorHighlighted());
+
+        EnemyStore enemies = state.getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            renderEnemy(enemies, i, alpha);
+        }
+
+        renderProjectiles(state.getProjectiles(), alpha);
+
+        renderPlayer(state.getPlayer(), alpha);
+    }
+
+    private static boolean overlaps(double x, double y, double width, double height,
+                                    double viewX, double viewY, double viewWidth, double viewHeight) {
+        return x < viewX + viewWidth && x + width > viewX && y < viewY + viewHeight && y + height > viewY;
+    }
+
+    // Counts the box towards this frame's drawn or culled total and says whether to draw it
+    private boolean cull(double x, double y, double width, double height) {
+        if (camera.isVisible(x, y, width, height)) {
+            drawnCount++;
+            return false;
+        }
+        culledCount++;
+        return true;
+    }
+
+    private void renderPlatform(GraphicsContext gc, Platform platform) {
+        if (quality == QualityGovernor.Tier.LOW) {
+            gc.setFill(PLATFORM_FILL);
+            gc.fillRect(platform.x, platform.y, platform.width, platform.height);
+        } else if (platformImage != null) {
+            double imgWidth = platformImage.getWidth();
+            double imgHeight = platformImage.getHeight();
+
+            for (double px = platform.x; px < platform.x + platform.width; px += imgWidth) {
+                for (double py = platform.y; py < platform.y + platform.height; py += imgHeight) {
+                    double drawWidth = Math.min(imgWidth, platform.x + platform.width - px);
+                    double drawHeight = Math.min(imgHeight, platform.y + platform.height - py);
+                    gc.drawImage(platformImage, 0, 0, drawWidth, drawHeight, px, py, drawWidth, drawHeight);
+                }
+            }
+        } else {
+            gc.setFill(PLATFORM_FILL);
+            gc.fillRect(platform.x, platform.y, platform.width, platform.height);
+
+            gc.setStroke(PLATFORM_EDGE);
+            gc.setLineWidth(2);
+            gc.strokeRect(platform.x, platform.y, platform.width, platform.height);
+        }
+    }
+
+    private void renderSpike(GraphicsContext gc, Spike spike) {
+        double x = spike.x;
+        double y = spike.y;
+        double width = spike.width;
+        double height = spike.height;
+        double spikeWidth = width / Spike.SPIKE_COUNT;
+
+        // Draw spike image or fallback to triangles
+        if (quality == QualityGovernor.Tier.LOW) {
+            gc.setFill(SPIKE_FILL);
+            gc.fillRect(x, y, width, height);
+        } else if (spikeImage != null) {
+            // Tile the spike image across the width
+            for (int i = 0; i < Spike.SPIKE_COUNT; i++) {
+                gc.drawImage(spikeImage, x + (i * spikeWidth), y, spikeWidth, height);
+            }
+        } else {
+            // Fallback to original triangle graphics
+            gc.setFill(SPIKE_FILL);
+
+            for (int i = 0; i < Spike.SPIKE_COUNT; i++) {
+                double baseX = x + (i * spikeWidth);
+                fillTriangle(gc, baseX, y + height, baseX + spikeWidth / 2, y, baseX + spikeWidth, y + height);
+            }
+
+            gc.setStroke(SPIKE_EDGE);
+            gc.setLineWidth(2);
+            gc.strokeRect(x, y, width, height);
+        }
+    }
+
+    private void fillTriangle(GraphicsContext gc, double x0, double y0, double x1, double y1, double x2, double y2) {
+        polygonX[0] = x0;
+        polygonX[1] = x1;
+        polygonX[2] = x2;
+        polygonY[0] = y0;
+        polygonY[1] = y1;
+        polygonY[2] = y2;
+        gc.fillPolygon(polygonX, polygonY, 3);
+    }
+
+    private void renderDoor(GraphicsContext gc, Door door) {
+        double x = door.x;
+        double y = door.y;
+        double width = door.width;
+        double height = door.height;
+
+        // Draw door image or fallback to rectangle
+        if (doorImage != null) {
+            gc.drawImage(doorImage, x, y, width, height);
+        } else {
+            // Fallback to original rectangle graphics
+            gc.setFill(DOOR_FRAME);
+            gc.fillRect(x, y, width, height);
+
+            gc.setFill(DOOR_PANEL);
+            gc.fillRect(x + 5, y + 5, width - 10, height - 10);
+
+            gc.setStroke(DOOR_LINES);
+            gc.setLineWidth(2);
+            gc.strokeLine(x + 5, y + height / 3, x + width - 5, y + height / 3);
+            gc.strokeLine(x + 5, y + 2 * height / 3, x + width - 5, y + 2 * height / 3);
+            gc.strokeLine(x + width / 2, y + 5, x + width / 2, y + height - 5);
+
+            gc.setFill(DOOR_KNOB);
+            gc.fillOval(x + width - 20, y + height / 2 - 5, 8, 8);
+        }
+
+    }
+
+    // Glowing outline when player is nearby
+    private void renderDoorHighlight(Door door, boolean highlighted) {
+        if (!highlighted) return;
+        // The prompt sits above and to the left of the door
+        if (cull(door.x - 10, door.y - 30, door.width + 130, door.height + 30)) return;
+
+        gc.setStroke(DOOR_HIGHLIGHT);
+        gc.setLineWidth(3);
+        gc.strokeRect(door.x, door.y, door.width, door.height);
+
+        gc.setFill(DOOR_PROMPT);
+        gc.setFont(DOOR_PROMPT_FONT);
+        gc.fillText("Press E to Enter", door.x - 10, door.y - 10);
+    }
+
+    private void renderEnemy(EnemyStore enemies, int i, double alpha) {
+        if (!enemies.isAlive(i)) return;
+
+        // Draw between the last two simulated positions
+        double x = enemies.getPrevX(i) + (enemies.getX(i) - enemies.getPrevX(i)) * alpha;
+        double y = enemies.getPrevY(i) + (enemies.getY(i) - enemies.getPrevY(i)) * alpha;
+        double width = EnemyStore.WIDTH;
+        double height = EnemyStore.HEIGHT;
+        if (cull(x, y, width, height)) return;
+        boolean movingRight = enemies.isMovingRight(i);
+
+        if (enemyFrame >= 0) {
+            atlas.draw(gc, enemyFrame, !movingRight, x, y, width, height);
+        } else {
+            gc.setFill(ENEMY_FILL);
+            gc.fillRect(x, y, width, height);
+
+            gc.setStroke(ENEMY_EDGE);
+            gc.setLineWidth(2);
+            gc.strokeRect(x, y, width, height);
+
+            gc.setFill(ENEMY_EYES);
+            if (movingRight) {
+                gc.fillOval(x + width - 25, y + 18, 15, 15);
+                gc.fillOval(x + width - 25, y + 40, 15, 15);
+            } else {
+                gc.fillOval(x + 10, y + 18, 15, 15);
+                gc.fillOval(x + 10, y + 40, 15, 15);
+            }
+
+            gc.setFill(ENEMY_SPIKE);
+            if (movingRight) {
+                fillTriangle(gc, x + width, y + height / 2, x + width - 12, y + height / 2 - 8,
+                        x + width - 12, y + height / 2 + 8);
+            } else {
+                fillTriangle(gc, x, y + height / 2, x + 12, y + height / 2 - 8, x + 12, y + height / 2 + 8);
+            }
+        }
+    }
+
+    // Visible projectiles are gathered first, then drawn one pass per layer, so the fill
+    // colour is set three times per frame rather than per projectile
+    private void renderProjectiles(ProjectilePool projectiles, double alpha) {
+        int count = projectiles.size();
+        double width = ProjectilePool.WIDTH;
+        double height = ProjectilePool.HEIGHT;
+
+        if (visibleX.length < count) {
+            visibleX = new double[Math.max(count, visibleX.length * 2)];
+            visibleY = new double[visibleX.length];
+        }
+        int visible = 0;
+        for (int i = 0; i < count; i++) {
+            double x = projectiles.getPrevX(i) + (projectiles.getX(i) - projectiles.getPrevX(i)) * alpha;
+            double y = projectiles.getPrevY(i) + (projectiles.getY(i) - projectiles.getPrevY(i)) * alpha;
+            if (!cull(x - 6, y - 6, width + 12, height + 12)) {
+                visibleX[visible] = x;
+                visibleY[visible] = y;
+                visible++;
+            }
+        }
+
+        if (quality == QualityGovernor.Tier.HIGH) {
+            gc.setFill(PROJECTILE_GLOW);
+            for (int i = 0; i < visible; i++) {
+                gc.fillOval(visibleX[i] - 6, visibleY[i] - 6, width + 12, height + 12);
+            }
+        }
+
+        gc.setFill(PROJECTILE_BODY);
+        for (int i = 0; i < visible; i++) {
+            gc.fillOval(visibleX[i], visibleY[i], width, height);
+        }
+
+        gc.setFill(PROJECTILE_CORE);
+        for (int i = 0; i < visible; i++) {
+            gc.fillOval(visibleX[i] + 3, visibleY[i] + 3, width - 6, height - 6);
+        }
+    }
+
+    private void renderPlayer(Player player, double alpha) {
+        double renderWidth = player.getRenderWidth();
+        double renderHeight = player.getRenderHeight();
+        double damageCooldownTimer = player.getDamageCooldownTimer();
+        boolean facingRight = player.isFacingRight();
+        boolean isInvulnerable = damageCooldownTimer > 0;
+
+        // Draw between the last two simulated positions
+        double drawX = player.getPrevX() + (player.getX() - player.getPrevX()) * alpha;
+        double drawY = player.getPrevY() + (player.getY() - player.getPrevY()) * alpha;
+
+        // <CHANGE> Calculate render position to center the larger sprite on the hitbox
+        double renderX = drawX - (renderWidth - player.getWidth()) / 2;
+        double renderY = drawY - (renderHeight - player.getHeight());
+        if (cull(renderX - 8, renderY - 8, renderWidth + 16, renderHeight + 16)) return;
+
+        if (player.isDashing() && quality == QualityGovernor.Tier.HIGH) {
+            gc.setFill(DASH_GLOW);
+            gc.fillRect(renderX - 5, renderY - 5, renderWidth + 10, renderHeight + 10);
+        }
+
+        if (player.isKnockedBack() && quality == QualityGovernor.Tier.HIGH) {
+            gc.setFill(KNOCKBACK_GLOW);
+            gc.fillRect(renderX - 8, renderY - 8, renderWidth + 16, renderHeight + 16);
+        }
+
+        if (playerIdleFrame >= 0) {
+            int frame;
+            if (player.isAttacking()) {
+                frame = playerAttackFrame;
+            } else if (!player.isOnGround()) {
+                frame = playerJumpFrame;
+            } else if (player.isMoving()) {
+                // <CHANGE> Added third walk frame to animation cycle
+                frame = playerWalkFrames[Math.min(player.getCurrentWalkFrame(), 2)];
+            } else {
+                frame = playerIdleFrame;
+            }
+            atlas.draw(gc, frame, !facingRight, renderX, renderY, renderWidth, renderHeight);
+
+            if (isInvulnerable && ((int)(damageCooldownTimer * 10) % 2 == 0)) {
+                gc.setFill(DAMAGE_FLASH);
+                gc.fillRect(renderX, renderY, renderWidth, renderHeight);
+            }
+        } else {
+            if (isInvulnerable && ((int)(damageCooldownTimer * 10) % 2 == 0)) {
+                gc.setFill(PLAYER_DAMAGED);
+            } else {
+                gc.setFill(Color.WHITE);
+            }
+            gc.fillRect(renderX, renderY, renderWidth, renderHeight);
+
+            gc.setFill(PLAYER_EYE);
+            if (facingRight) {
+                gc.fillRect(renderX + renderWidth - 8, renderY + 10, 5, 8);
+            } else {
+                gc.fillRect(renderX + 3, renderY + 10, 5, 8);
+            }
+        }
+    }
+
+    private void drawGameOver(double screenWidth, double screenHeight) {
+        gc.setFill(GAME_OVER_SHADE);
+        gc.fillRect(0, 0, screenWidth, screenHeight);
+
+        gc.setFill(GAME_OVER_TEXT);
+        gc.setFont(GAME_OVER_FONT);
+        String gameOverText = "GAME OVER";
+        double textWidth = GAME_OVER_FONT.getSize() * gameOverText.length() * 0.5;
+        gc.fillText(gameOverText, screenWidth / 2 - textWidth / 2, screenHeight / 2 - 50);
+
+        gc.setFill(Color.WHITE);
+        gc.setFont(RESTART_FONT);
+        String restartText = "Press R to Restart";
+        double restartWidth = RESTART_FONT.getSize() * restartText.length() * 0.4;
+        gc.fillText(restartText, screenWidth / 2 - restartWidth / 2, screenHeight / 2 + 50);
+    }
+}
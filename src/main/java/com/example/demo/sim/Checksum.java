@@ -0,0 +1,26 @@
+package com.example.demo.sim;
+
+/**
+ * Order-dependent 64-bit hash used to fingerprint simulation state. Doubles are hashed by
+ * their exact bits, so any divergence at all, however small, changes the result.
+ */
+final class Checksum {
+    static final long SEED = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private Checksum() {
+    }
+
+    static long mix(long hash, long value) {
+        hash = (hash ^ value) * PRIME;
+        return hash ^ (hash >>> 29);
+    }
+
+    static long mix(long hash, double value) {
+        return mix(hash, Double.doubleToLongBits(value));
+    }
+
+    static long mix(long hash, boolean value) {
+        return mix(hash, value ? 1L : 0L);
+    }
+}
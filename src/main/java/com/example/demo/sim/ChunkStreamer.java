@@ -0,0 +1,542 @@
+package com.example.demo.sim;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Streams a level in square chunks around the player. Chunks near the player are read
+ * from the level's file on the level loader thread and handed back through a queue, and
+ * chunks that fall far behind are dropped; the layout is never held in memory as a
+ * whole. The simulation only ever sees chunks that have finished loading, so how many
+ * entities are live, and how long each load takes, depends on the chunk size rather
+ * than on the size of the level.
+ *
+ * Platforms and spikes belong to every chunk they overlap, so long ground pieces stay
+ * solid while any part of them is active. Enemies belong to the chunk they spawn in; an
+ * enemy that was killed stays dead when its chunk is streamed back in.
+ */
+public class ChunkStreamer {
+    /**
+     * Entities of one chunk, read off the simulation thread.
+     */
+    static final class Chunk {
+        final int index;
+        final int[] platformIds;
+        final Platform[] platforms;
+        final int[] spikeIds;
+        final Spike[] spikes;
+        final int[] enemyIds;
+        // ENEMY_STRIDE values per enemy, as in LevelData
+        final double[] enemies;
+        long loadNanos;
+
+        Chunk(int index, int[] platformIds, Platform[] platforms, int[] spikeIds, Spike[] spikes,
+              int[] enemyIds, double[] enemies) {
+            this.index = index;
+            this.platformIds = platformIds;
+            this.platforms = platforms;
+            this.spikeIds = spikeIds;
+            this.spikes = spikes;
+            this.enemyIds = enemyIds;
+            this.enemies = enemies;
+        }
+    }
+
+    /**
+     * Entities of one kind from all active chunks, each once and in level order. Replaced
+     * rather than modified when chunks come and go, since the world and its snapshots
+     * share the arrays.
+     */
+    static final class Active<T> {
+        final int[] ids;
+        final T[] items;
+
+        Active(int[] ids, T[] items) {
+            this.ids = ids;
+            this.items = items;
+        }
+
+        /**
+         * These plus a chunk's entities, skipping any already active through another chunk.
+         */
+        Active<T> with(int[] addIds, T[] addItems) {
+            int[] mergedIds = new int[ids.length + addIds.length];
+            T[] merged = Arrays.copyOf(items, mergedIds.length);
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < ids.length || j < addIds.length) {
+                if (j == addIds.length || (i < ids.length && ids[i] <= addIds[j])) {
+                    if (j < addIds.length && ids[i] == addIds[j]) {
+                        j++;
+                    }
+                    mergedIds[n] = ids[i];
+                    merged[n++] = items[i++];
+                } else {
+                    mergedIds[n] = addIds[j];
+                    merged[n++] = addItems[j++];
+                }
+            }
+            return new Active<>(Arrays.copyOf(mergedIds, n), Arrays.copyOf(merged, n));
+        }
+
+        /**
+         * These without the first count of the given ids, which are ascending and all active.
+         */
+        Active<T> without(int[] removeIds, int count) {
+            if (count == 0) return this;
+            int[] keptIds = new int[ids.length - count];
+            T[] kept = Arrays.copyOf(items, keptIds.length);
+            int j = 0;
+            int n = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (j < count && ids[i] == removeIds[j]) {
+                    j++;
+                } else {
+                    keptIds[n] = ids[i];
+                    kept[n++] = items[i];
+                }
+            }
+            return new Active<>(keptIds, kept);
+        }
+    }
+
+    /**
+     * Copy of which chunks are active and which enemies were defeated, for
+     * {@link WorldSnapshot}. Chunks and active sets never change once built, so they are
+     * shared.
+     */
+    static final class State {
+        Chunk[] loaded;
+        int[] activeList = new int[16];
+        int activeCount;
+        Active<Platform> platforms;
+        Active<Spike> spikes;
+        final BitSet defeated = new BitSet();
+    }
+
+    private final LevelFile file;
+    private final double chunkSize;
+    private final int columns;
+    private final int rows;
+    private final int radius;
+    private final boolean background;
+
+    private final Chunk[] loaded;
+    private final boolean[] pending;
+    private int[] activeList = new int[16];
+    private int activeCount = 0;
+    private final ConcurrentLinkedQueue<Chunk> ready = new ConcurrentLinkedQueue<>();
+    // Chunks whose background load threw; loaded again on the simulation thread
+    private final ConcurrentLinkedQueue<Integer> failed = new ConcurrentLinkedQueue<>();
+    private final BitSet defeated = new BitSet();
+
+    private Active<Platform> platforms = new Active<>(new int[0], new Platform[0]);
+    private Active<Spike> spikes = new Active<>(new int[0], new Spike[0]);
+    // Ids of entities of a dropped chunk that no other active chunk holds
+    private int[] unused = new int[16];
+
+    // Chunks that came or went in the last update, for syncing enemies
+    private int[] arrived = new int[16];
+    private int arrivedCount = 0;
+    private boolean departed = false;
+    private final BitSet departing = new BitSet();
+    // Level id in the high half, position in arrivingValues in the low half
+    private long[] arrivingEnemies = new long[16];
+    private double[] arrivingValues = new double[16 * LevelData.ENEMY_STRIDE];
+
+    private long loadCount = 0;
+    private long unloadCount = 0;
+    private long totalLoadNanos = 0;
+    private long maxLoadNanos = 0;
+
+    /**
+     * @param radius     chunks are loaded up to this many chunks from the player's, and
+     *                   unloaded once they are more than one further away than that
+     * @param background load on the shared loader thread; otherwise chunks load inside
+     *                   {@link #update}, which keeps runs reproducible
+     */
+    public ChunkStreamer(LevelFile file, double chunkSize, int radius, boolean background) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.file = file;
+        this.chunkSize = chunkSize;
+        this.radius = Math.max(radius, 0);
+        this.background = background;
+        columns = Math.max(1, (int) Math.ceil(file.width / chunkSize));
+        rows = Math.max(1, (int) Math.ceil(file.height / chunkSize));
+
+        loaded = new Chunk[columns * rows];
+        pending = new boolean[columns * rows];
+    }
+
+    /**
+     * Loads every chunk around the point before returning, for level start.
+     */
+    public void prime(double x, double y) {
+        arrivedCount = 0;
+        departed = false;
+        int column = column(x);
+        int row = row(y);
+        for (int r = Math.max(0, row - radius); r <= Math.min(rows - 1, row + radius); r++) {
+            for (int c = Math.max(0, column - radius); c <= Math.min(columns - 1, column + radius); c++) {
+                ready.add(load(chunkIndex(c, r)));
+            }
+        }
+        drainReady(column, row);
+    }
+
+    /**
+     * Called once per tick with the player's position. Requests chunks that came into
+     * range, activates any that finished loading and drops those now out of range.
+     * Returns true if the set of active chunks changed.
+     */
+    public boolean update(double x, double y) {
+        arrivedCount = 0;
+        departed = false;
+        int column = column(x);
+        int row = row(y);
+
+        for (int r = Math.max(0, row - radius); r <= Math.min(rows - 1, row + radius); r++) {
+            for (int c = Math.max(0, column - radius); c <= Math.min(columns - 1, column + radius); c++) {
+                int index = chunkIndex(c, r);
+                if (loaded[index] == null && !pending[index]) {
+                    pending[index] = true;
+                    if (background) {
+                        LevelLoader.BACKGROUND.execute(() -> loadInBackground(index));
+                    } else {
+                        ready.add(load(index));
+                    }
+                }
+            }
+        }
+
+        drainReady(column, row);
+
+        for (int i = activeCount - 1; i >= 0; i--) {
+            int index = activeList[i];
+            if (distance(index, column, row) > radius + 1) {
+                Chunk chunk = loaded[index];
+                loaded[index] = null;
+                activeList[i] = activeList[--activeCount];
+                drop(chunk);
+                unloadCount++;
+                departed = true;
+            }
+        }
+
+        return arrivedCount > 0 || departed;
+    }
+
+    private void loadInBackground(int index) {
+        try {
+            ready.add(load(index));
+        } catch (RuntimeException e) {
+            failed.add(index);
+        }
+    }
+
+    private void drainReady(int column, int row) {
+        // Like a failed door prefetch, a failed load is retried here; if it fails again
+        // the error reaches the simulation thread, as it would in sync mode
+        Integer index;
+        while ((index = failed.poll()) != null) {
+            pending[index] = false;
+            if (loaded[index] == null && distance(index, column, row) <= radius + 1) {
+                ready.add(load(index));
+            }
+        }
+
+        Chunk chunk;
+        while ((chunk = ready.poll()) != null) {
+            pending[chunk.index] = false;
+            // The player may have moved on while it was loading
+            if (loaded[chunk.index] != null || distance(chunk.index, column, row) > radius + 1) {
+                continue;
+            }
+
+            loaded[chunk.index] = chunk;
+            if (activeCount == activeList.length) {
+                activeList = Arrays.copyOf(activeList, activeCount * 2);
+            }
+            activeList[activeCount++] = chunk.index;
+            if (arrivedCount == arrived.length) {
+                arrived = Arrays.copyOf(arrived, arrivedCount * 2);
+            }
+            arrived[arrivedCount++] = chunk.index;
+            platforms = platforms.with(chunk.platformIds, chunk.platforms);
+            spikes = spikes.with(chunk.spikeIds, chunk.spikes);
+
+            loadCount++;
+            totalLoadNanos += chunk.loadNanos;
+            maxLoadNanos = Math.max(maxLoadNanos, chunk.loadNanos);
+        }
+    }
+
+    // Takes a dropped chunk's entities out of the active sets, unless another active chunk
+    // still holds them, and marks its enemies for removal
+    private void drop(Chunk chunk) {
+        int count = 0;
+        for (int i = 0; i < chunk.platformIds.length; i++) {
+            Platform p = chunk.platforms[i];
+            if (!heldByActiveChunk(p.x, p.y, p.width, p.height)) {
+                count = addUnused(count, chunk.platformIds[i]);
+            }
+        }
+        platforms = platforms.without(unused, count);
+
+        count = 0;
+        for (int i = 0; i < chunk.spikeIds.length; i++) {
+            Spike spike = chunk.spikes[i];
+            if (!heldByActiveChunk(spike.x, spike.y, spike.width, spike.height)) {
+                count = addUnused(count, chunk.spikeIds[i]);
+            }
+        }
+        spikes = spikes.without(unused, count);
+
+        for (int id : chunk.enemyIds) {
+            departing.set(id);
+        }
+    }
+
+    private int addUnused(int count, int id) {
+        if (count == unused.length) {
+            unused = Arrays.copyOf(unused, count * 2);
+        }
+        unused[count] = id;
+        return count + 1;
+    }
+
+    private boolean heldByActiveChunk(double x, double y, double width, double height) {
+        for (int r = row(y); r <= row(y + height); r++) {
+            for (int c = column(x); c <= column(x + width); c++) {
+                if (loaded[chunkIndex(c, r)] != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Runs on the loader thread in background mode; reads only the level file
+    private Chunk load(int index) {
+        long start = System.nanoTime();
+        int column = index % columns;
+        int row = index / columns;
+        // The file is indexed by its own cells; read every cell the chunk touches and keep
+        // what actually belongs to the chunk
+        int firstColumn = file.cellColumn(column * chunkSize);
+        int lastColumn = file.cellColumn((column + 1) * chunkSize);
+        int firstRow = file.cellRow(row * chunkSize);
+        int lastRow = file.cellRow((row + 1) * chunkSize);
+
+        Chunk chunk;
+        try (LevelFile.Reader in = file.reader()) {
+            int[] platformIds = in.cellIds(LevelFile.PLATFORMS, firstColumn, lastColumn, firstRow, lastRow);
+            double[] boxes = in.records(LevelFile.PLATFORMS, platformIds);
+            int count = keepOverlapping(platformIds, boxes, index);
+            Platform[] platforms = new Platform[count];
+            for (int i = 0, o = 0; i < count; i++, o += LevelData.BOX_STRIDE) {
+                platforms[i] = new Platform(boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3]);
+            }
+            platformIds = Arrays.copyOf(platformIds, count);
+
+            int[] spikeIds = in.cellIds(LevelFile.SPIKES, firstColumn, lastColumn, firstRow, lastRow);
+            boxes = in.records(LevelFile.SPIKES, spikeIds);
+            count = keepOverlapping(spikeIds, boxes, index);
+            Spike[] spikes = new Spike[count];
+            for (int i = 0, o = 0; i < count; i++, o += LevelData.BOX_STRIDE) {
+                spikes[i] = new Spike(boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3]);
+            }
+            spikeIds = Arrays.copyOf(spikeIds, count);
+
+            int[] enemyIds = in.cellIds(LevelFile.ENEMIES, firstColumn, lastColumn, firstRow, lastRow);
+            double[] enemies = in.records(LevelFile.ENEMIES, enemyIds);
+            count = 0;
+            for (int i = 0; i < enemyIds.length; i++) {
+                int o = i * LevelData.ENEMY_STRIDE;
+                if (chunkIndex(column(enemies[o]), row(enemies[o + 1])) == index) {
+                    enemyIds[count] = enemyIds[i];
+                    System.arraycopy(enemies, o, enemies, count * LevelData.ENEMY_STRIDE, LevelData.ENEMY_STRIDE);
+                    count++;
+                }
+            }
+
+            chunk = new Chunk(index, platformIds, platforms, spikeIds, spikes, Arrays.copyOf(enemyIds, count),
+                    Arrays.copyOf(enemies, count * LevelData.ENEMY_STRIDE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load chunk " + index + " of level " + file.number, e);
+        }
+        chunk.loadNanos = System.nanoTime() - start;
+        return chunk;
+    }
+
+    // Packs the boxes overlapping the chunk to the front of ids and boxes, returning how many
+    private int keepOverlapping(int[] ids, double[] boxes, int index) {
+        int column = index % columns;
+        int row = index / columns;
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            int o = i * LevelData.BOX_STRIDE;
+            if (column(boxes[o]) <= column && column <= column(boxes[o] + boxes[o + 2]) &&
+                    row(boxes[o + 1]) <= row && row <= row(boxes[o + 1] + boxes[o + 3])) {
+                ids[count] = ids[i];
+                System.arraycopy(boxes, o, boxes, count * LevelData.BOX_STRIDE, LevelData.BOX_STRIDE);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Platforms of all active chunks, each once and in level order.
+     */
+    public Platform[] collectPlatforms() {
+        return platforms.items;
+    }
+
+    /**
+     * Spikes of all active chunks, each once and in level order.
+     */
+    public Spike[] collectSpikes() {
+        return spikes.items;
+    }
+
+    /**
+     * Brings the live enemies in line with the active chunks: enemies whose chunk was
+     * dropped are removed, and the surviving enemies of newly arrived chunks are added.
+     */
+    public void syncEnemies(EnemyStore enemies) {
+        if (departed) {
+            for (int i = 0; i < enemies.size(); i++) {
+                int id = enemies.getId(i);
+                if (id >= 0 && departing.get(id)) {
+                    enemies.kill(i);
+                }
+            }
+            enemies.removeDead();
+            departing.clear();
+        }
+
+        // Newcomers are added in level order, so a fully loaded level matches a static one
+        int count = 0;
+        for (int a = 0; a < arrivedCount; a++) {
+            Chunk chunk = loaded[arrived[a]];
+            for (int i = 0; i < chunk.enemyIds.length; i++) {
+                int id = chunk.enemyIds[i];
+                if (defeated.get(id)) continue;
+                if (count == arrivingEnemies.length) {
+                    arrivingEnemies = Arrays.copyOf(arrivingEnemies, count * 2);
+                    arrivingValues = Arrays.copyOf(arrivingValues, count * 2 * LevelData.ENEMY_STRIDE);
+                }
+                System.arraycopy(chunk.enemies, i * LevelData.ENEMY_STRIDE, arrivingValues,
+                        count * LevelData.ENEMY_STRIDE, LevelData.ENEMY_STRIDE);
+                arrivingEnemies[count] = (long) id << 32 | count;
+                count++;
+            }
+        }
+        Arrays.sort(arrivingEnemies, 0, count);
+
+        for (int i = 0; i < count; i++) {
+            int id = (int) (arrivingEnemies[i] >>> 32);
+            int o = (int) arrivingEnemies[i] * LevelData.ENEMY_STRIDE;
+            enemies.add(arrivingValues[o], arrivingValues[o + 1], arrivingValues[o + 2], arrivingValues[o + 3], id);
+        }
+    }
+
+    void saveState(State state) {
+        if (state.loaded == null || state.loaded.length != loaded.length) {
+            state.loaded = new Chunk[loaded.length];
+        }
+        System.arraycopy(loaded, 0, state.loaded, 0, loaded.length);
+        if (state.activeList.length < activeCount) {
+            state.activeList = new int[activeList.length];
+        }
+        System.arraycopy(activeList, 0, state.activeList, 0, activeCount);
+        state.activeCount = activeCount;
+        state.platforms = platforms;
+        state.spikes = spikes;
+        state.defeated.clear();
+        state.defeated.or(defeated);
+    }
+
+    /**
+     * Puts back a state saved from this streamer. Loads still in flight are forgotten;
+     * if one lands later it is only used if its chunk is wanted again by then.
+     */
+    void restoreState(State state) {
+        System.arraycopy(state.loaded, 0, loaded, 0, loaded.length);
+        if (activeList.length < state.activeCount) {
+            activeList = new int[state.activeList.length];
+        }
+        System.arraycopy(state.activeList, 0, activeList, 0, state.activeCount);
+        activeCount = state.activeCount;
+        platforms = state.platforms;
+        spikes = state.spikes;
+        defeated.clear();
+        defeated.or(state.defeated);
+        Arrays.fill(pending, false);
+        ready.clear();
+        failed.clear();
+        arrivedCount = 0;
+        departed = false;
+        departing.clear();
+    }
+
+    /**
+     * Records that the enemy with this level id was killed, so it isn't streamed back in.
+     */
+    public void markDefeated(int id) {
+        if (id >= 0) {
+            defeated.set(id);
+        }
+    }
+
+    private int distance(int index, int column, int row) {
+        return Math.max(Math.abs(index % columns - column), Math.abs(index / columns - row));
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / chunkSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / chunkSize)));
+    }
+
+    private int chunkIndex(int column, int row) {
+        return row * columns + column;
+    }
+
+    public int getChunkCount() {
+        return columns * rows;
+    }
+
+    public int getActiveChunkCount() {
+        return activeCount;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public long getUnloadCount() {
+        return unloadCount;
+    }
+
+    public long getMaxLoadNanos() {
+        return maxLoadNanos;
+    }
+
+    public double getAverageLoadNanos() {
+        return loadCount == 0 ? 0 : (double) totalLoadNanos / loadCount;
+    }
+
+    public boolean isBackground() {
+        return background;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.sim;
+
+/**
+ * How the world finds overlapping entities each tick. Both modes give identical results;
+ * PAIRWISE is the original all-pairs loop and is kept for comparison.
+ */
+public enum CollisionMode {
+    PAIRWISE,
+    SPATIAL_HASH
+}
@@ -0,0 +1,26 @@
+package com.example.demo.sim;
+
+public class Door {
+    public double x, y, width, height;
+    private boolean playerNearby = false;
+
+    public Door(double x, double y, double width, double height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public boolean isPlayerNearby(double px, double py, double pWidth, double pHeight) {
+        double interactionRange = 20;
+        playerNearby = px < x + width + interactionRange &&
+                px + pWidth > x - interactionRange &&
+                py < y + height + interactionRange &&
+                py + pHeight > y - interactionRange;
+        return playerNearby;
+    }
+
+    public boolean isHighlighted() {
+        return playerNearby;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.demo.sim;
+
+/**
+ * Things that happened in a tick that only change how the game looks, such as an enemy
+ * dying or the player being hurt, for the renderer to turn into particles. Events are
+ * numbered from 0 and the last {@link #CAPACITY} are kept in a ring, so a reader that
+ * only looks now and then picks up from the number it saw last; anything older is
+ * overwritten. They are not part of the world's state: not checksummed, snapshotted or
+ * recorded.
+ */
+public final class EffectEvents {
+    public static final int ENEMY_KILLED = 0;
+    public static final int PLAYER_DAMAGED = 1;
+    public static final int DASH_STARTED = 2;
+
+    public static final int CAPACITY = 256;
+
+    private final int[] type = new int[CAPACITY];
+    private final double[] x = new double[CAPACITY];
+    private final double[] y = new double[CAPACITY];
+    private final double[] direction = new double[CAPACITY];
+    private long count = 0;
+
+    /**
+     * Records an event at a world position; direction is -1 or 1 for left or right, or 0
+     * for none.
+     */
+    void add(int eventType, double eventX, double eventY, double eventDirection) {
+        int slot = (int) (count % CAPACITY);
+        type[slot] = eventType;
+        x[slot] = eventX;
+        y[slot] = eventY;
+        direction[slot] = eventDirection;
+        count++;
+    }
+
+    void copyFrom(EffectEvents other) {
+        System.arraycopy(other.type, 0, type, 0, CAPACITY);
+        System.arraycopy(other.x, 0, x, 0, CAPACITY);
+        System.arraycopy(other.y, 0, y, 0, CAPACITY);
+        System.arraycopy(other.direction, 0, direction, 0, CAPACITY);
+        count = other.count;
+    }
+
+    /**
+     * Number of events ever recorded; the next event gets this number.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Number of the oldest event still kept.
+     */
+    public long getOldest() {
+        return Math.max(0, count - CAPACITY);
+    }
+
+    public int getType(long event) {
+        return type[(int) (event % CAPACITY)];
+    }
+
+    public double getX(long event) {
+        return x[(int) (event % CAPACITY)];
+    }
+
+    public double getY(long event) {
+        return y[(int) (event % CAPACITY)];
+    }
+
+    public double getDirection(long event) {
+        return direction[(int) (event % CAPACITY)];
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.demo.sim;
+
+import java.util.Arrays;
+
+/**
+ * All patrolling enemies of a level, kept as primitive columns indexed by enemy slot.
+ * The whole batch is moved in one pass and collision queries scan the columns directly,
+ * so even tens of thousands of enemies stay a handful of flat arrays.
+ */
+public class EnemyStore {
+    // <CHANGE> Increased enemy size significantly for much bigger enemy models
+    public static final double WIDTH = 100;  // Increased from 70
+    public static final double HEIGHT = 100; // Increased from 70
+    public static final double SPEED = 60;
+
+    private int count = 0;
+    private double[] x;
+    private double[] y;
+    private double[] prevX;
+    private double[] prevY;
+    private double[] velocityX;
+    private double[] minX;
+    private double[] maxX;
+    private boolean[] movingRight;
+    private boolean[] alive;
+    private int[] ids;
+
+    public EnemyStore() {
+        this(16);
+    }
+
+    public EnemyStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        x = new double[capacity];
+        y = new double[capacity];
+        prevX = new double[capacity];
+        prevY = new double[capacity];
+        velocityX = new double[capacity];
+        minX = new double[capacity];
+        maxX = new double[capacity];
+        movingRight = new boolean[capacity];
+        alive = new boolean[capacity];
+        ids = new int[capacity];
+    }
+
+    public int add(double startX, double startY, double patrolRangeLeft, double patrolRangeRight) {
+        return add(startX, startY, patrolRangeLeft, patrolRangeRight, -1);
+    }
+
+    /**
+     * Adds an enemy tagged with a caller-chosen id, e.g. its index in the level data, that
+     * stays with it as slots are compacted. Untagged enemies have id -1.
+     */
+    public int add(double startX, double startY, double patrolRangeLeft, double patrolRangeRight, int id) {
+        if (count == x.length) {
+            grow(count * 2);
+        }
+
+        int i = count++;
+        x[i] = startX;
+        y[i] = startY;
+        prevX[i] = startX;
+        prevY[i] = startY;
+        velocityX[i] = SPEED;
+        minX[i] = patrolRangeLeft;
+        maxX[i] = patrolRangeRight;
+        movingRight[i] = true;
+        alive[i] = true;
+        ids[i] = id;
+        return i;
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        movingRight = Arrays.copyOf(movingRight, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+
+    /**
+     * Makes this store an exact copy of the other, growing only if it is too small.
+     */
+    public void copyFrom(EnemyStore other) {
+        if (x.length < other.count) {
+            grow(other.x.length);
+        }
+        count = other.count;
+        System.arraycopy(other.x, 0, x, 0, count);
+        System.arraycopy(other.y, 0, y, 0, count);
+        System.arraycopy(other.prevX, 0, prevX, 0, count);
+        System.arraycopy(other.prevY, 0, prevY, 0, count);
+        System.arraycopy(other.velocityX, 0, velocityX, 0, count);
+        System.arraycopy(other.minX, 0, minX, 0, count);
+        System.arraycopy(other.maxX, 0, maxX, 0, count);
+        System.arraycopy(other.movingRight, 0, movingRight, 0, count);
+        System.arraycopy(other.alive, 0, alive, 0, count);
+        System.arraycopy(other.ids, 0, ids, 0, count);
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public void savePreviousState() {
+        System.arraycopy(x, 0, prevX, 0, count);
+        System.arraycopy(y, 0, prevY, 0, count);
+    }
+
+    /**
+     * Moves every live enemy along its patrol range, turning round at either end.
+     */
+    public void update(double deltaTime) {
+        update(0, count, deltaTime);
+    }
+
+    /**
+     * Moves the enemies in slots [from, to). Each slot only touches its own state, so
+     * disjoint ranges can be updated concurrently.
+     */
+    public void update(int from, int to, double deltaTime) {
+        for (int i = from; i < to; i++) {
+            if (!alive[i]) continue;
+
+            if (movingRight[i]) {
+                x[i] += velocityX[i] * deltaTime;
+                if (x[i] >= maxX[i]) {
+                    x[i] = maxX[i];
+                    movingRight[i] = false;
+                }
+            } else {
+                x[i] -= velocityX[i] * deltaTime;
+                if (x[i] <= minX[i]) {
+                    x[i] = minX[i];
+                    movingRight[i] = true;
+                }
+            }
+        }
+    }
+
+    public boolean overlaps(int index, double px, double py, double pWidth, double pHeight) {
+        return alive[index] &&
+                px < x[index] + WIDTH &&
+                px + pWidth > x[index] &&
+                py < y[index] + HEIGHT &&
+                py + pHeight > y[index];
+    }
+
+    /**
+     * Slot of the first live enemy overlapping the box, or -1 if there is none.
+     */
+    public int firstOverlapping(double px, double py, double pWidth, double pHeight) {
+        for (int i = 0; i < count; i++) {
+            if (overlaps(i, px, py, pWidth, pHeight)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fraction of the move (0 to 1) at which a box moving by (dx, dy) first overlaps the
+     * enemy, or a negative value if it doesn't or the enemy is dead. The enemy is taken
+     * to stand where it is; enemies are slow next to anything swept against them.
+     */
+    public double timeOfImpact(int index, double px, double py, double pWidth, double pHeight, double dx, double dy) {
+        if (!alive[index]) return Sweep.MISS;
+        return Sweep.timeOfImpact(px, py, pWidth, pHeight, dx, dy, x[index], y[index], WIDTH, HEIGHT);
+    }
+
+    /**
+     * Slot of the live enemy a box moving by (dx, dy) reaches first, the lowest slot among
+     * those reached at the same moment, or -1 if it reaches none.
+     */
+    public int firstHit(double px, double py, double pWidth, double pHeight, double dx, double dy) {
+        int first = -1;
+        double firstTime = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double time = timeOfImpact(i, px, py, pWidth, pHeight, dx, dy);
+            if (time >= 0 && time < firstTime) {
+                first = i;
+                firstTime = time;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Bulk form of {@link #firstHit}: for every live projectile, swept over the move it
+     * made this tick, writes the enemy it hit first, or -1, into firstHit at its slot.
+     */
+    public void firstHits(ProjectilePool projectiles, double deltaTime, int[] firstHit) {
+        firstHits(projectiles, 0, projectiles.size(), deltaTime, firstHit);
+    }
+
+    /**
+     * As {@link #firstHits(ProjectilePool, double, int[])} for projectile slots [from, to).
+     * Only reads state, so disjoint ranges can be queried concurrently.
+     */
+    public void firstHits(ProjectilePool projectiles, int from, int to, double deltaTime, int[] firstHit) {
+        for (int p = from; p < to; p++) {
+            double dx = projectiles.getVelocityX(p) * deltaTime;
+            double dy = projectiles.getVelocityY(p) * deltaTime;
+            firstHit[p] = firstHit(projectiles.getX(p) - dx, projectiles.getY(p) - dy,
+                    ProjectilePool.WIDTH, ProjectilePool.HEIGHT, dx, dy);
+        }
+    }
+
+    public void kill(int index) {
+        alive[index] = false;
+    }
+
+    /**
+     * Drops dead enemies, keeping the survivors in their original order.
+     */
+    public void removeDead() {
+        int write = 0;
+        for (int read = 0; read < count; read++) {
+            if (!alive[read]) continue;
+
+            if (write != read) {
+                x[write] = x[read];
+                y[write] = y[read];
+                prevX[write] = prevX[read];
+                prevY[write] = prevY[read];
+                velocityX[write] = velocityX[read];
+                minX[write] = minX[read];
+                maxX[write] = maxX[read];
+                movingRight[write] = movingRight[read];
+                alive[write] = true;
+                ids[write] = ids[read];
+            }
+            write++;
+        }
+        count = write;
+    }
+
+    long checksum(long hash) {
+        hash = Checksum.mix(hash, count);
+        for (int i = 0; i < count; i++) {
+            hash = Checksum.mix(hash, ids[i]);
+            hash = Checksum.mix(hash, x[i]);
+            hash = Checksum.mix(hash, y[i]);
+            hash = Checksum.mix(hash, velocityX[i]);
+            hash = Checksum.mix(hash, movingRight[i]);
+            hash = Checksum.mix(hash, alive[i]);
+        }
+        return hash;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isAlive(int index) {
+        return alive[index];
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getPrevX(int index) {
+        return prevX[index];
+    }
+
+    public double getPrevY(int index) {
+        return prevY[index];
+    }
+
+    public double getMinX(int index) {
+        return minX[index];
+    }
+
+    public double getMaxX(int index) {
+        return maxX[index];
+    }
+
+    public boolean isMovingRight(int index) {
+        return movingRight[index];
+    }
+}
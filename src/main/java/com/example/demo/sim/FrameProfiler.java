@@ -0,0 +1,234 @@
+package com.example.demo.sim;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Splits each frame into phases and keeps the time spent in each. Code being measured
+ * calls {@link #mark()} where a measured stretch starts and {@link #lap(Phase)} where a
+ * phase ends; time between the two is charged to that phase, summed over every tick in
+ * the frame. While disabled each call is a field read and a branch.
+ *
+ * The last {@link #WINDOW} frames are kept per phase for rolling percentiles, and each
+ * frame can also be streamed to a CSV file by a background writer thread.
+ */
+public class FrameProfiler {
+    public enum Phase {
+        INPUT,
+        STREAMING,
+        PLAYER,
+        ENEMIES,
+        PROJECTILES,
+        COLLISION,
+        RENDER_SCENE,
+        RENDER_ENTITIES,
+        RENDER_PARTICLES,
+        RENDER_HUD,
+        FRAME
+    }
+
+    public static final int WINDOW = 600;
+    private static final Phase[] PHASES = Phase.values();
+    // One CSV record: frame number, start time, then one column per phase
+    private static final int RECORD_LENGTH = PHASES.length + 2;
+
+    // Toggled from the UI thread while another thread may be profiling
+    private volatile boolean enabled = false;
+    private long frameStart;
+    private long last;
+    private long frameNumber = 0;
+    private final long[] current = new long[PHASES.length];
+
+    // Ring of the last WINDOW frames, per phase
+    private final long[][] history = new long[PHASES.length][WINDOW];
+    private int historyNext = 0;
+    private int historySize = 0;
+    private final long[] sortScratch = new long[WINDOW];
+
+    private CsvWriter csv;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void beginFrame() {
+        if (!enabled) return;
+        Arrays.fill(current, 0);
+        frameStart = System.nanoTime();
+        last = frameStart;
+    }
+
+    /**
+     * Starts timing; the next {@link #lap(Phase)} is charged from here.
+     */
+    public void mark() {
+        if (!enabled) return;
+        last = System.nanoTime();
+    }
+
+    /**
+     * Charges the time since the last mark or lap to the phase.
+     */
+    public void lap(Phase phase) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        current[phase.ordinal()] += now - last;
+        last = now;
+    }
+
+    public void endFrame() {
+        if (!enabled) return;
+        current[Phase.FRAME.ordinal()] = System.nanoTime() - frameStart;
+
+        for (int p = 0; p < PHASES.length; p++) {
+            history[p][historyNext] = current[p];
+        }
+        historyNext = (historyNext + 1) % WINDOW;
+        historySize = Math.min(historySize + 1, WINDOW);
+
+        if (csv != null) {
+            csv.offer(frameNumber, frameStart, current);
+        }
+        frameNumber++;
+    }
+
+    /**
+     * Nanoseconds spent in the phase during the last finished frame.
+     */
+    public long getLast(Phase phase) {
+        int index = (historyNext + WINDOW - 1) % WINDOW;
+        return historySize == 0 ? 0 : history[phase.ordinal()][index];
+    }
+
+    /**
+     * Percentile (0-100) of the phase's time per frame over the rolling window, in ns.
+     * Sorts a copy of the window, so call it a few times a second, not per phase per frame.
+     */
+    public long percentile(Phase phase, double percentile) {
+        if (historySize == 0) return 0;
+        System.arraycopy(history[phase.ordinal()], 0, sortScratch, 0, historySize);
+        Arrays.sort(sortScratch, 0, historySize);
+        int rank = (int) Math.ceil(percentile / 100 * historySize) - 1;
+        return sortScratch[Math.max(0, Math.min(rank, historySize - 1))];
+    }
+
+    public long max(Phase phase) {
+        long max = 0;
+        long[] values = history[phase.ordinal()];
+        for (int i = 0; i < historySize; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Starts streaming one line per profiled frame to the file, replacing any earlier writer.
+     */
+    public void startCsv(Path file) throws IOException {
+        stopCsv();
+        csv = new CsvWriter(Files.newBufferedWriter(file));
+    }
+
+    public void stopCsv() {
+        if (csv != null) {
+            csv.close();
+            csv = null;
+        }
+    }
+
+    /**
+     * Frames that were not written because the writer thread fell behind.
+     */
+    public long getCsvDropped() {
+        return csv == null ? 0 : csv.dropped;
+    }
+
+    /**
+     * Hands records to a daemon thread that formats and writes them. Record arrays cycle
+     * between a free pool and the pending queue, so profiling doesn't allocate per frame;
+     * if the writer falls behind, frames are dropped and counted rather than blocking.
+     */
+    private static final class CsvWriter implements Runnable {
+        private static final int CAPACITY = 1024;
+        private static final long[] STOP = new long[0];
+
+        private final BufferedWriter out;
+        private final BlockingQueue<long[]> pending = new ArrayBlockingQueue<>(CAPACITY + 1);
+        private final BlockingQueue<long[]> free = new ArrayBlockingQueue<>(CAPACITY);
+        private final Thread thread;
+        private volatile long dropped = 0;
+
+        CsvWriter(BufferedWriter out) {
+            this.out = out;
+            for (int i = 0; i < CAPACITY; i++) {
+                free.add(new long[RECORD_LENGTH]);
+            }
+            thread = new Thread(this, "profiler-csv");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void offer(long frame, long start, long[] phases) {
+            long[] record = free.poll();
+            if (record == null) {
+                dropped++;
+                return;
+            }
+            record[0] = frame;
+            record[1] = start;
+            System.arraycopy(phases, 0, record, 2, phases.length);
+            pending.add(record);
+        }
+
+        void close() {
+            pending.add(STOP);
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            StringBuilder line = new StringBuilder(256);
+            try (BufferedWriter writer = out) {
+                line.append("frame,start_ns");
+                for (Phase phase : PHASES) {
+                    line.append(',').append(phase.name().toLowerCase()).append("_ns");
+                }
+                writer.write(line.append('\n').toString());
+
+                while (true) {
+                    long[] record = pending.take();
+                    if (record == STOP) break;
+
+                    line.setLength(0);
+                    for (int i = 0; i < record.length; i++) {
+                        if (i > 0) line.append(',');
+                        line.append(record[i]);
+                    }
+                    writer.append(line).append('\n');
+                    free.add(record);
+
+                    if (pending.isEmpty()) {
+                        writer.flush();
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Profiler CSV writer stopped: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.sim;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Steps the world as fast as possible without a display, driven by a simple scripted bot.
+ * Usage: HeadlessSimulation [ticks] [tickRate]
+ * With -Dprofile=true each tick is profiled as a frame and a per-phase summary printed;
+ * -Dprofile.csv=file also writes every tick to a CSV file, and -Dinput.record=file saves
+ * the bot's input as an {@link InputLog} for {@link ReplaySimulation}.
+ */
+public class HeadlessSimulation {
+
+    /**
+     * Runs back and forth across the level, jumping and shooting on a fixed schedule,
+     * and presses restart when it dies.
+     */
+    static class ScriptedBot {
+        private final InputSnapshot input = new InputSnapshot();
+        private int tick = 0;
+        private boolean movingRight = true;
+
+        InputSnapshot next(World world) {
+            if (world.isGameOver()) {
+                input.setBits(InputSnapshot.RESTART);
+                return input;
+            }
+
+            Player player = world.getPlayer();
+            if (movingRight && player.getX() + player.getWidth() >= world.getWidth() - 1) {
+                movingRight = false;
+            } else if (!movingRight && player.getX() <= 1) {
+                movingRight = true;
+            }
+
+            int bits = movingRight ? InputSnapshot.MOVE_RIGHT : InputSnapshot.MOVE_LEFT;
+            if (tick % 90 < 20) bits |= InputSnapshot.JUMP;
+            if (tick % 240 == 0) bits |= InputSnapshot.DASH;
+            if (tick % 30 == 0) bits |= InputSnapshot.SHOOT;
+            if (world.canEnterDoor()) bits |= InputSnapshot.ENTER_DOOR;
+            tick++;
+
+            input.setBits(bits);
+            return input;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        double tickRate = args.length > 1 ? Double.parseDouble(args[1]) : 60;
+        double deltaTime = 1.0 / tickRate;
+
+        World world = new World();
+        ScriptedBot bot = new ScriptedBot();
+        FrameProfiler profiler = world.getProfiler();
+        String csv = System.getProperty("profile.csv");
+        if (csv != null) {
+            profiler.startCsv(Paths.get(csv));
+        }
+        profiler.setEnabled(Boolean.getBoolean("profile") || csv != null);
+        String record = System.getProperty("input.record");
+        InputLog.Recorder recorder = null;
+        if (record != null) {
+            InputLog.prepare(world);
+            recorder = new InputLog.Recorder(Paths.get(record), world, tickRate);
+        }
+        int restarts = 0;
+
+        long start = System.nanoTime();
+        for (long i = 0; i < ticks; i++) {
+            profiler.beginFrame();
+            InputSnapshot input = bot.next(world);
+            if (input.isRestart()) {
+                restarts++;
+            }
+            if (recorder != null) {
+                recorder.record(input, deltaTime);
+            }
+            world.savePreviousState();
+            world.update(deltaTime, input);
+            if (recorder != null) {
+                recorder.afterTick(world);
+            }
+            profiler.endFrame();
+        }
+        if (recorder != null) {
+            recorder.finish(world);
+        }
+        long csvDropped = profiler.getCsvDropped();
+        profiler.stopCsv();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("%d ticks in %.3f s: %.0f ticks/s (%.1f ns/tick)%n",
+                ticks, seconds, ticks / seconds, seconds * 1e9 / ticks);
+        System.out.printf("level %d, health %d, enemies %d, restarts %d%n",
+                world.getCurrentLevel(), world.getPlayer().getHealth(), world.getEnemies().size(), restarts);
+        System.out.printf("last level load: %s in %.3f ms%n",
+                world.getLevelFile().getSource(), world.getLevelFile().getLoadNanos() / 1_000_000.0);
+        if (world.getTransitionCount() > 0) {
+            System.out.printf("%d door transitions, last: prepared in %.3f ms (%s), swapped in %.1f us%n",
+                    world.getTransitionCount(), world.getLastPrefetchNanos() / 1_000_000.0,
+                    world.wasLastTransitionPrefetched() ? "prefetched" : "waited for",
+                    world.getLastSwapNanos() / 1_000.0);
+        }
+        ChunkStreamer streamer = world.getStreamer();
+        if (streamer != null) {
+            System.out.printf("streaming (%s): %d of %d chunks active, %d loads, %d unloads, %.3f ms avg / %.3f ms max load%n",
+                    world.getStreamingMode(), streamer.getActiveChunkCount(), streamer.getChunkCount(),
+                    streamer.getLoadCount(), streamer.getUnloadCount(),
+                    streamer.getAverageLoadNanos() / 1_000_000.0, streamer.getMaxLoadNanos() / 1_000_000.0);
+        }
+        if (recorder != null) {
+            System.out.printf("input recorded to %s, final checksum %016x%n", record, world.checksum());
+        }
+        if (csv != null) {
+            System.out.printf("profile written to %s, %d frames dropped by the writer%n", csv, csvDropped);
+        }
+        if (profiler.isEnabled()) {
+            for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+                System.out.printf("  %-16s p50 %8.1f us  p99 %8.1f us  max %8.1f us%n", phase.name().toLowerCase(),
+                        profiler.percentile(phase, 50) / 1e3, profiler.percentile(phase, 99) / 1e3,
+                        profiler.max(phase) / 1e3);
+            }
+        }
+        System.out.printf("projectiles: %d spawned, %d dropped on overflow%n",
+                world.getProjectiles().getSpawnedCount(), world.getProjectiles().getOverflowCount());
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.demo.sim;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Binary log of every tick's input, enough to step a fresh {@link World} through the same
+ * session again. The header holds "INPL", a version and the world settings that change
+ * how a tick plays out (see {@link Settings}); after it the log is a stream of one-byte
+ * records:
+ * <pre>
+ * 0x00-0x7F  one tick, with these {@link InputSnapshot} bits and the current delta
+ * 0x80       new delta for the following ticks: a double
+ * 0x81       checkpoint: the world's checksum after the last tick, a long
+ * 0x82       end: total ticks and the final checksum, two longs
+ * </pre>
+ * At a fixed tick rate the delta is written once, so a tick costs one byte. A checkpoint
+ * follows every {@link #CHECKPOINT_INTERVAL} ticks so a replay that diverges can say
+ * roughly where.
+ */
+public final class InputLog {
+    public static final int MAGIC = 0x494E504C; // "INPL"
+    public static final int VERSION = 2;
+    public static final int CHECKPOINT_INTERVAL = 600;
+
+    static final int DELTA = 0x80;
+    static final int CHECKPOINT = 0x81;
+    static final int END = 0x82;
+
+    private InputLog() {
+    }
+
+    /**
+     * Streaming levels in the background makes what is loaded depend on thread timing,
+     * so both recording and replay run with synchronous streaming from a fresh level 1.
+     */
+    public static void prepare(World world) {
+        world.setStreamingMode(StreamingMode.SYNC);
+        world.restart();
+    }
+
+    /**
+     * World settings a recording was made with. Replaying under different ones would
+     * diverge, so the replay puts them back before it starts.
+     */
+    public static final class Settings {
+        private final double tickRate;
+        private final int maxProjectiles;
+        private final CollisionMode collisionMode;
+        private final double cellSize;
+        private final boolean parallel;
+        private final long parallelThreshold;
+        private final double chunkSize;
+        private final int chunkRadius;
+
+        private Settings(double tickRate, int maxProjectiles, CollisionMode collisionMode, double cellSize,
+                         boolean parallel, long parallelThreshold, double chunkSize, int chunkRadius) {
+            this.tickRate = tickRate;
+            this.maxProjectiles = maxProjectiles;
+            this.collisionMode = collisionMode;
+            this.cellSize = cellSize;
+            this.parallel = parallel;
+            this.parallelThreshold = parallelThreshold;
+            this.chunkSize = chunkSize;
+            this.chunkRadius = chunkRadius;
+        }
+
+        /**
+         * The world's current settings, for a session ticking at the given rate.
+         */
+        public static Settings of(World world, double tickRate) {
+            return new Settings(tickRate, world.getProjectiles().getCapacity(), world.getCollisionMode(),
+                    world.getCellSize(), world.isParallel(), world.getParallelThreshold(),
+                    world.getChunkSize(), world.getChunkRadius());
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeDouble(tickRate);
+            out.writeInt(maxProjectiles);
+            out.writeUTF(collisionMode.name());
+            out.writeDouble(cellSize);
+            out.writeBoolean(parallel);
+            out.writeLong(parallelThreshold);
+            out.writeDouble(chunkSize);
+            out.writeInt(chunkRadius);
+        }
+
+        private static Settings read(ByteBuffer in) throws IOException {
+            double tickRate = in.getDouble();
+            int maxProjectiles = in.getInt();
+            byte[] name = new byte[in.getShort() & 0xFFFF];
+            in.get(name);
+            CollisionMode collisionMode;
+            try {
+                collisionMode = CollisionMode.valueOf(new String(name, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("input log uses an unknown collision mode", e);
+            }
+            double cellSize = in.getDouble();
+            boolean parallel = in.get() != 0;
+            long parallelThreshold = in.getLong();
+            double chunkSize = in.getDouble();
+            int chunkRadius = in.getInt();
+            return new Settings(tickRate, maxProjectiles, collisionMode, cellSize, parallel, parallelThreshold,
+                    chunkSize, chunkRadius);
+        }
+
+        /**
+         * Puts these settings into a world. Call before {@link InputLog#prepare}, which
+         * reloads the level so they all take effect.
+         */
+        public void apply(World world) {
+            if (world.getProjectiles().getCapacity() != maxProjectiles) {
+                world.setProjectileCapacity(maxProjectiles);
+            }
+            world.setCollisionMode(collisionMode);
+            world.setCellSize(cellSize);
+            world.setParallel(parallel);
+            world.setParallelThreshold(parallelThreshold);
+            world.setChunkSize(chunkSize);
+            world.setChunkRadius(chunkRadius);
+        }
+
+        public double getTickRate() {
+            return tickRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f Hz, %d projectiles, %s collision (cell %.0f), parallel %s (threshold %d), " +
+                            "chunks %.0f radius %d", tickRate, maxProjectiles, collisionMode, cellSize,
+                    parallel ? "on" : "off", parallelThreshold, chunkSize, chunkRadius);
+        }
+    }
+
+    /**
+     * Appends ticks to a log file as they are simulated.
+     */
+    public static final class Recorder implements AutoCloseable {
+        private final DataOutputStream out;
+        private double delta = Double.NaN;
+        private long ticks = 0;
+
+        /**
+         * Starts a log of a session in the given world, recording its settings and the
+         * rate it ticks at. The world should have been through {@link InputLog#prepare}.
+         */
+        public Recorder(Path file, World world, double tickRate) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            Settings.of(world, tickRate).write(out);
+        }
+
+        /**
+         * Records the input and delta of a tick, to be called right before it is simulated.
+         */
+        public void record(InputSnapshot input, double deltaTime) throws IOException {
+            if (Double.doubleToLongBits(deltaTime) != Double.doubleToLongBits(delta)) {
+                delta = deltaTime;
+                out.writeByte(DELTA);
+                out.writeDouble(deltaTime);
+            }
+            out.writeByte(input.getBits());
+        }
+
+        /**
+         * Counts the tick just simulated and writes a checkpoint when one is due.
+         */
+        public void afterTick(World world) throws IOException {
+            ticks++;
+            if (ticks % CHECKPOINT_INTERVAL == 0) {
+                out.writeByte(CHECKPOINT);
+                out.writeLong(world.checksum());
+            }
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        /**
+         * Writes the end record with the world's final checksum and closes the file.
+         */
+        public void finish(World world) throws IOException {
+            out.writeByte(END);
+            out.writeLong(ticks);
+            out.writeLong(world.checksum());
+            close();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Walks a log held in memory, so replaying never waits on the disk.
+     */
+    public static final class Reader {
+        private final ByteBuffer buffer;
+        private final Settings settings;
+        private final InputSnapshot input = new InputSnapshot();
+        private double delta = Double.NaN;
+        private long expectedChecksum;
+        private long endTicks = -1;
+
+        public Reader(byte[] log) throws IOException {
+            buffer = ByteBuffer.wrap(log);
+            if (log.length < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("not an input log");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported input log version " + version);
+            }
+            try {
+                settings = Settings.read(buffer);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("input log header is truncated", e);
+            }
+        }
+
+        /**
+         * Settings the log was recorded with.
+         */
+        public Settings getSettings() {
+            return settings;
+        }
+
+        /**
+         * Moves to the next record. Returns a tag above 0x7F for a checkpoint or the end,
+         * or the tick's input bits, which are then also in {@link #getInput()}.
+         */
+        public int next() throws IOException {
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    throw new IOException("input log ends without an end record");
+                }
+                int tag = buffer.get() & 0xFF;
+                switch (tag) {
+                    case DELTA:
+                        delta = buffer.getDouble();
+                        break;
+                    case CHECKPOINT:
+                        expectedChecksum = buffer.getLong();
+                        return tag;
+                    case END:
+                        endTicks = buffer.getLong();
+                        expectedChecksum = buffer.getLong();
+                        return tag;
+                    default:
+                        if (tag > 0x7F) {
+                            throw new IOException("bad input log record 0x" + Integer.toHexString(tag) +
+                                    " at byte " + (buffer.position() - 1));
+                        }
+                        input.setBits(tag);
+                        return tag;
+                }
+            }
+        }
+
+        public InputSnapshot getInput() {
+            return input;
+        }
+
+        public double getDelta() {
+            return delta;
+        }
+
+        /**
+         * Checksum recorded by the last checkpoint or end record.
+         */
+        public long getExpectedChecksum() {
+            return expectedChecksum;
+        }
+
+        /**
+         * Tick count from the end record, or -1 before it has been read.
+         */
+        public long getEndTicks() {
+            return endTicks;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.sim;
+
+/**
+ * Input for one tick as a bitset of buttons. Held buttons (move, jump, dash, shoot) are
+ * set for every tick they are down; holding shoot keeps firing as fast as the player's
+ * cooldown allows. Actions (enter door, restart) are set only on the first tick after
+ * the key went down. Mutable so the front end can reuse one instance.
+ */
+public final class InputSnapshot implements InputState {
+    public static final int MOVE_LEFT = 1;
+    public static final int MOVE_RIGHT = 1 << 1;
+    public static final int JUMP = 1 << 2;
+    public static final int DASH = 1 << 3;
+    public static final int SHOOT = 1 << 4;
+    public static final int ENTER_DOOR = 1 << 5;
+    public static final int RESTART = 1 << 6;
+
+    /** Buttons that fire once per key press rather than while held. */
+    public static final int ACTIONS = ENTER_DOOR | RESTART;
+
+    private int bits;
+
+    public InputSnapshot() {
+    }
+
+    public InputSnapshot(int bits) {
+        this.bits = bits;
+    }
+
+    public int getBits() {
+        return bits;
+    }
+
+    public void setBits(int bits) {
+        this.bits = bits;
+    }
+
+    public boolean isSet(int button) {
+        return (bits & button) != 0;
+    }
+
+    @Override
+    public boolean isMoveLeft() {
+        return (bits & MOVE_LEFT) != 0;
+    }
+
+    @Override
+    public boolean isMoveRight() {
+        return (bits & MOVE_RIGHT) != 0;
+    }
+
+    @Override
+    public boolean isJump() {
+        return (bits & JUMP) != 0;
+    }
+
+    @Override
+    public boolean isDash() {
+        return (bits & DASH) != 0;
+    }
+
+    @Override
+    public boolean isShoot() {
+        return (bits & SHOOT) != 0;
+    }
+
+    @Override
+    public boolean isEnterDoor() {
+        return (bits & ENTER_DOOR) != 0;
+    }
+
+    @Override
+    public boolean isRestart() {
+        return (bits & RESTART) != 0;
+    }
+}
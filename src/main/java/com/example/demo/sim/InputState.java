@@ -0,0 +1,28 @@
+package com.example.demo.sim;
+
+/**
+ * The input the simulation reads each tick. Implemented by the keyboard front end, and
+ * by scripted or recorded sources when running headless. The one-shot actions default
+ * to never firing, for sources that only drive movement.
+ */
+public interface InputState {
+    boolean isMoveLeft();
+
+    boolean isMoveRight();
+
+    boolean isJump();
+
+    boolean isDash();
+
+    default boolean isShoot() {
+        return false;
+    }
+
+    default boolean isEnterDoor() {
+        return false;
+    }
+
+    default boolean isRestart() {
+        return false;
+    }
+}
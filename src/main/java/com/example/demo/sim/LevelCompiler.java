@@ -0,0 +1,43 @@
+package com.example.demo.sim;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Build step that turns authored text levels into the binary form the game loads.
+ * Usage: LevelCompiler sourceDir outputDir
+ * Every *.txt file in sourceDir is written to outputDir with a .lvl extension.
+ */
+public class LevelCompiler {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: LevelCompiler sourceDir outputDir");
+            System.exit(2);
+        }
+        Path sourceDir = Paths.get(args[0]);
+        Path outputDir = Paths.get(args[1]);
+        Files.createDirectories(outputDir);
+
+        try (DirectoryStream<Path> sources = Files.newDirectoryStream(sourceDir, "*.txt")) {
+            for (Path source : sources) {
+                String fileName = source.getFileName().toString();
+                LevelData level;
+                try (Reader reader = Files.newBufferedReader(source)) {
+                    level = LevelFormat.parseText(reader, fileName);
+                }
+
+                byte[] binary = LevelFormat.toBinary(level);
+                Path target = outputDir.resolve(fileName.substring(0, fileName.length() - 4) + ".lvl");
+                Files.write(target, binary);
+                System.out.printf("%s -> %s: %d platforms, %d spikes, %d enemies, %d bytes%n",
+                        fileName, target.getFileName(), level.getPlatformCount(), level.getSpikeCount(),
+                        level.getEnemyCount(), binary.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.sim;
+
+/**
+ * A level layout as flat coordinate arrays, exactly as it is stored on disk. Nothing in
+ * here is mutated by play; {@link World} builds fresh platforms, spikes, enemies and a
+ * door from it every time the level is (re)entered.
+ */
+public class LevelData {
+    /** Doubles per platform or spike: x, y, width, height. */
+    public static final int BOX_STRIDE = 4;
+    /** Doubles per enemy: x, y, patrol left, patrol right. */
+    public static final int ENEMY_STRIDE = 4;
+
+    public final int number;
+    public final double width;
+    public final double height;
+    public final double spawnX;
+    public final double spawnY;
+    public final double[] door;
+    public final int nextLevel;
+    public final double[] platforms;
+    public final double[] spikes;
+    public final double[] enemies;
+
+    // Filled in by LevelLoader
+    String source = "generated";
+    long loadNanos = 0;
+
+    public LevelData(int number, double width, double height, double spawnX, double spawnY,
+                     double[] door, int nextLevel, double[] platforms, double[] spikes, double[] enemies) {
+        if (door.length != BOX_STRIDE) {
+            throw new IllegalArgumentException("door needs " + BOX_STRIDE + " values, got " + door.length);
+        }
+        if (platforms.length % BOX_STRIDE != 0 || spikes.length % BOX_STRIDE != 0 ||
+                enemies.length % ENEMY_STRIDE != 0) {
+            throw new IllegalArgumentException("coordinate arrays must hold whole entries");
+        }
+        this.number = number;
+        this.width = width;
+        this.height = height;
+        this.spawnX = spawnX;
+        this.spawnY = spawnY;
+        this.door = door;
+        this.nextLevel = nextLevel;
+        this.platforms = platforms;
+        this.spikes = spikes;
+        this.enemies = enemies;
+    }
+
+    public int getPlatformCount() {
+        return platforms.length / BOX_STRIDE;
+    }
+
+    public int getSpikeCount() {
+        return spikes.length / BOX_STRIDE;
+    }
+
+    public int getEnemyCount() {
+        return enemies.length / ENEMY_STRIDE;
+    }
+
+    /**
+     * This layout repeated side by side, with the door moved to the last copy. Used to
+     * build arbitrarily wide worlds from a shipped level.
+     */
+    public LevelData tiled(int copies) {
+        double[] tiledPlatforms = new double[platforms.length * copies];
+        double[] tiledSpikes = new double[spikes.length * copies];
+        double[] tiledEnemies = new double[enemies.length * copies];
+        for (int copy = 0; copy < copies; copy++) {
+            double offset = copy * width;
+            offsetX(platforms, tiledPlatforms, copy, offset, BOX_STRIDE);
+            offsetX(spikes, tiledSpikes, copy, offset, BOX_STRIDE);
+            offsetX(enemies, tiledEnemies, copy, offset, ENEMY_STRIDE);
+            // The patrol range is in world x as well
+            for (int o = copy * enemies.length; o < (copy + 1) * enemies.length; o += ENEMY_STRIDE) {
+                tiledEnemies[o + 2] += offset;
+                tiledEnemies[o + 3] += offset;
+            }
+        }
+
+        double[] tiledDoor = door.clone();
+        tiledDoor[0] += (copies - 1) * width;
+        return new LevelData(number, width * copies, height, spawnX, spawnY, tiledDoor, nextLevel,
+                tiledPlatforms, tiledSpikes, tiledEnemies);
+    }
+
+    private static void offsetX(double[] source, double[] target, int copy, double offset, int stride) {
+        int base = copy * source.length;
+        System.arraycopy(source, 0, target, base, source.length);
+        for (int o = base; o < base + source.length; o += stride) {
+            target[o] += offset;
+        }
+    }
+
+    public Platform[] createPlatforms() {
+        Platform[] result = new Platform[getPlatformCount()];
+        for (int i = 0, o = 0; i < result.length; i++, o += BOX_STRIDE) {
+            result[i] = new Platform(platforms[o], platforms[o + 1], platforms[o + 2], platforms[o + 3]);
+        }
+        return result;
+    }
+
+    public Spike[] createSpikes() {
+        Spike[] result = new Spike[getSpikeCount()];
+        for (int i = 0, o = 0; i < result.length; i++, o += BOX_STRIDE) {
+            result[i] = new Spike(spikes[o], spikes[o + 1], spikes[o + 2], spikes[o + 3]);
+        }
+        return result;
+    }
+
+    public EnemyStore createEnemies() {
+        int count = getEnemyCount();
+        EnemyStore result = new EnemyStore(count);
+        for (int o = 0; o < count * ENEMY_STRIDE; o += ENEMY_STRIDE) {
+            result.add(enemies[o], enemies[o + 1], enemies[o + 2], enemies[o + 3]);
+        }
+        return result;
+    }
+
+    public Door createDoor() {
+        return new Door(door[0], door[1], door[2], door[3]);
+    }
+
+    /**
+     * Where this layout was read from: "binary", "text" or "generated".
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Time spent reading and decoding the layout, in nanoseconds.
+     */
+    public long getLoadNanos() {
+        return loadNanos;
+    }
+}
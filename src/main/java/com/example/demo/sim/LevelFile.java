@@ -0,0 +1,316 @@
+package com.example.demo.sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A level in its binary form (see {@link LevelFormat}), opened for reading in place.
+ * Only the header is read up front. The platforms, spikes and enemies stay where they
+ * are and are read either all at once into a {@link LevelData}, or a few cells at a time
+ * through the index at the end of the file, which is how {@link ChunkStreamer} streams a
+ * level without ever holding all of it.
+ *
+ * Reads go to the file itself when the level is a plain file on disk, and to a copy of
+ * its bytes otherwise (inside a jar, parsed from text, or generated).
+ */
+public final class LevelFile {
+    static final int PLATFORMS = 0;
+    static final int SPIKES = 1;
+    static final int ENEMIES = 2;
+
+    private static final int[] STRIDE = {LevelData.BOX_STRIDE, LevelData.BOX_STRIDE, LevelData.ENEMY_STRIDE};
+
+    public final int number;
+    public final int nextLevel;
+    public final double width;
+    public final double height;
+    public final double spawnX;
+    public final double spawnY;
+    public final double[] door = new double[LevelData.BOX_STRIDE];
+
+    // The index's grid of cells
+    final int columns;
+    final int rows;
+    final double cellSize;
+
+    private final String name;
+    private final Path path;
+    private final ByteBuffer bytes;
+    private final int[] counts = new int[3];
+    // Where each kind's coordinates, and each kind's cell starts, begin in the file
+    private final long[] recordOffsets = new long[3];
+    private final long[] indexOffsets = new long[3];
+
+    // Filled in by LevelLoader
+    String source = "generated";
+    long loadNanos = 0;
+
+    private LevelFile(String name, Path path, ByteBuffer bytes) throws IOException {
+        this.name = name;
+        this.path = path;
+        this.bytes = bytes;
+
+        try (Reader in = reader()) {
+            long size = in.size();
+            int headerBytes = LevelFormat.HEADER_INTS * Integer.BYTES + LevelFormat.FIXED_DOUBLES * Double.BYTES;
+            if (size < headerBytes || in.read(0, Integer.BYTES).getInt() != LevelFormat.MAGIC) {
+                throw new IOException(name + ": not a compiled level");
+            }
+
+            ByteBuffer header = in.read(Integer.BYTES, headerBytes - Integer.BYTES);
+            int version = header.getInt();
+            if (version != LevelFormat.VERSION) {
+                throw new IOException(name + ": unsupported level version " + version);
+            }
+            number = header.getInt();
+            nextLevel = header.getInt();
+            for (int kind = PLATFORMS; kind <= ENEMIES; kind++) {
+                counts[kind] = header.getInt();
+            }
+            columns = header.getInt();
+            rows = header.getInt();
+            header.getInt();
+            width = header.getDouble();
+            height = header.getDouble();
+            spawnX = header.getDouble();
+            spawnY = header.getDouble();
+            for (int i = 0; i < door.length; i++) {
+                door[i] = header.getDouble();
+            }
+            cellSize = header.getDouble();
+            if (counts[PLATFORMS] < 0 || counts[SPIKES] < 0 || counts[ENEMIES] < 0 ||
+                    columns < 1 || rows < 1 || !(cellSize > 0)) {
+                throw new IOException(name + ": corrupt level header");
+            }
+
+            long offset = headerBytes;
+            for (int kind = PLATFORMS; kind <= ENEMIES; kind++) {
+                recordOffsets[kind] = offset;
+                offset += (long) counts[kind] * STRIDE[kind] * Double.BYTES;
+            }
+            long cells = (long) columns * rows;
+            for (int kind = PLATFORMS; kind <= ENEMIES; kind++) {
+                indexOffsets[kind] = offset;
+                if (offset + (cells + 1) * Integer.BYTES > size) break;
+                // The last start is the number of ids the cells list between them
+                int listed = in.read(offset + cells * Integer.BYTES, Integer.BYTES).getInt();
+                offset += (cells + 1 + Math.max(listed, 0)) * Integer.BYTES;
+            }
+            if (offset != size) {
+                throw new IOException(name + ": truncated or corrupt level");
+            }
+        }
+    }
+
+    /**
+     * Opens a compiled level file, reading just its header.
+     */
+    public static LevelFile open(Path path) throws IOException {
+        return new LevelFile(path.getFileName().toString(), path, null);
+    }
+
+    /**
+     * A compiled level held in memory.
+     */
+    public static LevelFile of(byte[] bytes, String name) throws IOException {
+        return new LevelFile(name, null, ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+    }
+
+    /**
+     * A layout built in memory, compiled so it can be streamed like a shipped level.
+     */
+    public static LevelFile of(LevelData level) {
+        try {
+            LevelFile file = of(LevelFormat.toBinary(level), "level" + level.number);
+            file.source = level.source;
+            file.loadNanos = level.loadNanos;
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException("compiled level did not read back", e);
+        }
+    }
+
+    /**
+     * Reads the whole layout.
+     */
+    public LevelData readLevel() throws IOException {
+        double[][] values = new double[3][];
+        try (Reader in = reader()) {
+            for (int kind = PLATFORMS; kind <= ENEMIES; kind++) {
+                values[kind] = new double[counts[kind] * STRIDE[kind]];
+                in.read(recordOffsets[kind], values[kind].length * Double.BYTES).asDoubleBuffer().get(values[kind]);
+            }
+        }
+        LevelData level = new LevelData(number, width, height, spawnX, spawnY, door.clone(), nextLevel,
+                values[PLATFORMS], values[SPIKES], values[ENEMIES]);
+        level.source = source;
+        level.loadNanos = loadNanos;
+        return level;
+    }
+
+    /**
+     * Opens the level for a series of reads; the reader must be closed afterwards.
+     */
+    Reader reader() throws IOException {
+        return new Reader(path == null ? null : FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * The index column a world x coordinate falls in, clamped to the level.
+     */
+    int cellColumn(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    /**
+     * The index row a world y coordinate falls in, clamped to the level.
+     */
+    int cellRow(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    public int getPlatformCount() {
+        return counts[PLATFORMS];
+    }
+
+    public int getSpikeCount() {
+        return counts[SPIKES];
+    }
+
+    public int getEnemyCount() {
+        return counts[ENEMIES];
+    }
+
+    /**
+     * Where this layout was read from: "binary", "text" or "generated".
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Time spent opening the level, in nanoseconds.
+     */
+    public long getLoadNanos() {
+        return loadNanos;
+    }
+
+    /**
+     * Positional reads from the level, through one buffer that each read reuses. Not
+     * thread-safe; every thread opens its own.
+     */
+    final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer source;
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        private Reader(FileChannel channel) {
+            this.channel = channel;
+            source = channel == null ? bytes.duplicate() : null;
+        }
+
+        long size() throws IOException {
+            return channel != null ? channel.size() : source.capacity();
+        }
+
+        /**
+         * Reads length bytes from a position in the file. The buffer returned is only
+         * valid until the next read.
+         */
+        ByteBuffer read(long position, int length) throws IOException {
+            if (position < 0 || length < 0 || position + length > size()) {
+                throw new IOException(name + ": truncated or corrupt level");
+            }
+            if (buffer.capacity() < length) {
+                buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2));
+            }
+            buffer.clear().limit(length);
+            if (channel != null) {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        throw new IOException(name + ": truncated or corrupt level");
+                    }
+                }
+            } else {
+                source.limit((int) position + length).position((int) position);
+                buffer.put(source);
+            }
+            return buffer.flip();
+        }
+
+        /**
+         * Ids of every entry of a kind that the cells in the given range list, ascending
+         * and each once. Within a row the cells' lists are stored back to back, so each
+         * row takes two reads.
+         */
+        int[] cellIds(int kind, int firstColumn, int lastColumn, int firstRow, int lastRow) throws IOException {
+            long cells = (long) columns * rows;
+            long idsOffset = indexOffsets[kind] + (cells + 1) * Integer.BYTES;
+            int[] ids = new int[16];
+            int count = 0;
+            for (int row = firstRow; row <= lastRow; row++) {
+                long firstCell = (long) row * columns + firstColumn;
+                ByteBuffer starts = read(indexOffsets[kind] + firstCell * Integer.BYTES,
+                        (lastColumn - firstColumn + 2) * Integer.BYTES);
+                int start = starts.getInt(0);
+                int end = starts.getInt((lastColumn - firstColumn + 1) * Integer.BYTES);
+                if (end < start) {
+                    throw new IOException(name + ": corrupt level index");
+                }
+                if (count + end - start > ids.length) {
+                    ids = Arrays.copyOf(ids, Math.max(count + end - start, ids.length * 2));
+                }
+                read(idsOffset + (long) start * Integer.BYTES, (end - start) * Integer.BYTES)
+                        .asIntBuffer().get(ids, count, end - start);
+                count += end - start;
+            }
+
+            // Boxes spanning several cells are listed by each of them
+            Arrays.sort(ids, 0, count);
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (unique == 0 || ids[i] != ids[unique - 1]) {
+                    ids[unique++] = ids[i];
+                }
+            }
+            for (int i = 0; i < unique; i++) {
+                if (ids[i] < 0 || ids[i] >= counts[kind]) {
+                    throw new IOException(name + ": corrupt level index");
+                }
+            }
+            return Arrays.copyOf(ids, unique);
+        }
+
+        /**
+         * Coordinates of the entries of a kind with the given ascending ids, one stride
+         * after another. Runs of consecutive ids are read together.
+         */
+        double[] records(int kind, int[] ids) throws IOException {
+            int stride = STRIDE[kind];
+            double[] values = new double[ids.length * stride];
+            int i = 0;
+            while (i < ids.length) {
+                int run = 1;
+                while (i + run < ids.length && ids[i + run] == ids[i] + run) {
+                    run++;
+                }
+                read(recordOffsets[kind] + (long) ids[i] * stride * Double.BYTES, run * stride * Double.BYTES)
+                        .asDoubleBuffer().get(values, i * stride, run * stride);
+                i += run;
+            }
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.demo.sim;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reads and writes {@link LevelData} in its two forms.
+ *
+ * The text form is for authoring: one entry per line, '#' starts a comment.
+ * <pre>
+ * level 1
+ * size 1920 1080
+ * spawn 100 100
+ * door 1700 890 90 110 2      # x y width height, then the level it leads to
+ * platform 0 1000 1920 80     # x y width height
+ * spike 500 965 150 35        # x y width height
+ * enemy 600 900 550 750       # x y, then the left and right end of its patrol
+ * </pre>
+ *
+ * The binary form is what the game ships: a fixed header of ints followed by every
+ * coordinate as a big-endian double, in the same order as the arrays in LevelData, and
+ * then an index of which platforms, spikes and enemies lie in each square cell of the
+ * level. A whole level is decoded with bulk buffer copies straight into those arrays;
+ * a streamed one is read a chunk at a time through the index (see {@link LevelFile}).
+ */
+public final class LevelFormat {
+    public static final int MAGIC = 0x4C564C44; // "LVLD"
+    public static final int VERSION = 2;
+    /** Side of the square cells the binary form is indexed by; the default chunk size. */
+    public static final double CELL_SIZE = 1024;
+
+    // magic, version, number, next level, platform count, spike count, enemy count,
+    // index columns, index rows, reserved
+    static final int HEADER_INTS = 10;
+    // width, height, spawn x, spawn y, door x, y, width, height, index cell size
+    static final int FIXED_DOUBLES = 9;
+
+    private LevelFormat() {
+    }
+
+    public static LevelData parseText(Reader reader, String name) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        DoubleList platforms = new DoubleList();
+        DoubleList spikes = new DoubleList();
+        DoubleList enemies = new DoubleList();
+        double[] size = null;
+        double[] spawn = null;
+        double[] door = null;
+        int number = -1;
+        int nextLevel = -1;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            String[] tokens = line.split("\\s+");
+            String where = name + ":" + lineNumber;
+            switch (tokens[0]) {
+                case "level":
+                    number = (int) numbers(tokens, 1, where)[0];
+                    break;
+                case "size":
+                    size = numbers(tokens, 2, where);
+                    break;
+                case "spawn":
+                    spawn = numbers(tokens, 2, where);
+                    break;
+                case "door": {
+                    double[] values = numbers(tokens, 5, where);
+                    door = new double[] {values[0], values[1], values[2], values[3]};
+                    nextLevel = (int) values[4];
+                    break;
+                }
+                case "platform":
+                    platforms.addAll(numbers(tokens, LevelData.BOX_STRIDE, where));
+                    break;
+                case "spike":
+                    spikes.addAll(numbers(tokens, LevelData.BOX_STRIDE, where));
+                    break;
+                case "enemy":
+                    enemies.addAll(numbers(tokens, LevelData.ENEMY_STRIDE, where));
+                    break;
+                default:
+                    throw new IllegalArgumentException(where + ": unknown entry '" + tokens[0] + "'");
+            }
+        }
+
+        if (number < 0 || size == null || spawn == null || door == null) {
+            throw new IllegalArgumentException(name + ": level, size, spawn and door are all required");
+        }
+        return new LevelData(number, size[0], size[1], spawn[0], spawn[1], door, nextLevel,
+                platforms.toArray(), spikes.toArray(), enemies.toArray());
+    }
+
+    private static double[] numbers(String[] tokens, int count, String where) {
+        if (tokens.length != count + 1) {
+            throw new IllegalArgumentException(where + ": '" + tokens[0] + "' takes " + count + " numbers");
+        }
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            try {
+                values[i] = Double.parseDouble(tokens[i + 1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(where + ": not a number: " + tokens[i + 1]);
+            }
+        }
+        return values;
+    }
+
+    public static byte[] toBinary(LevelData level) {
+        int columns = Math.max(1, (int) Math.ceil(level.width / CELL_SIZE));
+        int rows = Math.max(1, (int) Math.ceil(level.height / CELL_SIZE));
+        int[] platformIndex = indexCells(level.platforms, LevelData.BOX_STRIDE, true, columns, rows);
+        int[] spikeIndex = indexCells(level.spikes, LevelData.BOX_STRIDE, true, columns, rows);
+        int[] enemyIndex = indexCells(level.enemies, LevelData.ENEMY_STRIDE, false, columns, rows);
+
+        int doubles = FIXED_DOUBLES + level.platforms.length + level.spikes.length + level.enemies.length;
+        int ints = platformIndex.length + spikeIndex.length + enemyIndex.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_INTS * Integer.BYTES + doubles * Double.BYTES +
+                ints * Integer.BYTES);
+
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(level.number)
+                .putInt(level.nextLevel)
+                .putInt(level.getPlatformCount())
+                .putInt(level.getSpikeCount())
+                .putInt(level.getEnemyCount())
+                .putInt(columns)
+                .putInt(rows)
+                .putInt(0);
+
+        buffer.putDouble(level.width).putDouble(level.height).putDouble(level.spawnX).putDouble(level.spawnY);
+        for (double value : level.door) {
+            buffer.putDouble(value);
+        }
+        buffer.putDouble(CELL_SIZE);
+        buffer.asDoubleBuffer().put(level.platforms).put(level.spikes).put(level.enemies);
+        buffer.position(buffer.position() + (level.platforms.length + level.spikes.length +
+                level.enemies.length) * Double.BYTES);
+        buffer.asIntBuffer().put(platformIndex).put(spikeIndex).put(enemyIndex);
+        return buffer.array();
+    }
+
+    // The cell lists for one kind of entry: a start position for every cell plus one for
+    // the end, then the ids listed by each cell in turn, ascending. Boxes are listed in
+    // every cell they overlap, enemies only in the cell they spawn in.
+    private static int[] indexCells(double[] values, int stride, boolean boxes, int columns, int rows) {
+        int cells = columns * rows;
+        int count = values.length / stride;
+        int[] perCell = new int[cells];
+        for (int id = 0; id < count; id++) {
+            int o = id * stride;
+            for (int r = cell(values[o + 1], rows); r <= lastCell(values, o, 1, boxes, rows); r++) {
+                for (int c = cell(values[o], columns); c <= lastCell(values, o, 0, boxes, columns); c++) {
+                    perCell[r * columns + c]++;
+                }
+            }
+        }
+
+        int total = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int listed = perCell[cell];
+            perCell[cell] = total;
+            total += listed;
+        }
+        int[] index = new int[cells + 1 + total];
+        System.arraycopy(perCell, 0, index, 0, cells);
+        index[cells] = total;
+
+        for (int id = 0; id < count; id++) {
+            int o = id * stride;
+            for (int r = cell(values[o + 1], rows); r <= lastCell(values, o, 1, boxes, rows); r++) {
+                for (int c = cell(values[o], columns); c <= lastCell(values, o, 0, boxes, columns); c++) {
+                    index[cells + 1 + perCell[r * columns + c]++] = id;
+                }
+            }
+        }
+        return index;
+    }
+
+    // Last cell along one axis an entry reaches: its far edge for boxes, its position otherwise
+    private static int lastCell(double[] values, int o, int axis, boolean boxes, int cells) {
+        return cell(boxes ? values[o + axis] + values[o + axis + 2] : values[o + axis], cells);
+    }
+
+    // The cell a coordinate falls in along one axis of the index, clamped to the level
+    private static int cell(double coordinate, int cells) {
+        return Math.max(0, Math.min(cells - 1, (int) Math.floor(coordinate / CELL_SIZE)));
+    }
+
+    public static LevelData readBinary(byte[] bytes, String name) throws IOException {
+        return LevelFile.of(bytes, name).readLevel();
+    }
+
+    // Growable double[] for the text parser, so large levels don't box every coordinate
+    private static final class DoubleList {
+        private double[] values = new double[64];
+        private int size = 0;
+
+        void addAll(double[] more) {
+            if (size + more.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(size + more.length, values.length * 2));
+            }
+            System.arraycopy(more, 0, values, size, more.length);
+            size += more.length;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.sim;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Finds level layouts on the classpath. The build compiles every levels/levelN.txt into
+ * a binary levels/levelN.lvl next to it; the binary is preferred, and the text source
+ * is only parsed when no compiled copy exists (e.g. when running straight from an IDE).
+ * A compiled level that is a plain file is read in place rather than copied into memory.
+ */
+public final class LevelLoader {
+    private static final String DIRECTORY = "/levels/";
+
+    // One daemon thread for all background level work: door prefetches and chunk loads
+    static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "level-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private LevelLoader() {
+    }
+
+    /**
+     * Opens a level, reading only its header; see {@link LevelFile}.
+     */
+    public static LevelFile open(int level) {
+        String name = "level" + level;
+        long start = System.nanoTime();
+
+        try {
+            LevelFile file;
+            URL binary = LevelLoader.class.getResource(DIRECTORY + name + ".lvl");
+            if (binary != null && "file".equals(binary.getProtocol())) {
+                file = LevelFile.open(Paths.get(binary.toURI()));
+                file.source = "binary";
+            } else if (binary != null) {
+                // Packaged in a jar or image, where it can't be read in place
+                try (InputStream in = binary.openStream()) {
+                    file = LevelFile.of(in.readAllBytes(), name + ".lvl");
+                }
+                file.source = "binary";
+            } else {
+                file = LevelFile.of(loadText(name + ".txt"));
+                file.source = "text";
+            }
+            file.loadNanos = System.nanoTime() - start;
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load level " + level, e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Bad resource location for level " + level, e);
+        }
+    }
+
+    private static LevelData loadText(String fileName) throws IOException {
+        try (InputStream text = LevelLoader.class.getResourceAsStream(DIRECTORY + fileName)) {
+            if (text == null) {
+                throw new IllegalArgumentException("Unknown level: " + fileName);
+            }
+            return LevelFormat.parseText(new InputStreamReader(text, StandardCharsets.UTF_8), fileName);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits an index range into chunks and runs them on the common fork/join pool. The
+ * chunk tasks are made once and reinitialized for each run, so a run makes no tasks; the
+ * pool may still allocate a small wait node when the calling thread has to block for
+ * the workers. Not reentrant: one range runs at a time.
+ */
+final class ParallelRange {
+
+    interface Body {
+        void run(int from, int to);
+    }
+
+    private final Chunk[] chunks;
+
+    // The run in progress; written before the chunks are forked, which publishes them to the workers
+    private Body body;
+    private int count;
+    private int parts;
+
+    /**
+     * A range split into a few chunks per worker of the common pool. Without workers,
+     * as on a single processor, the calling thread runs every chunk itself.
+     */
+    ParallelRange() {
+        chunks = new Chunk[Math.max(1, ForkJoinPool.getCommonPoolParallelism()) * 4];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new Chunk(i);
+        }
+    }
+
+    /**
+     * Runs body over [0, count) and returns once every chunk is done.
+     */
+    void forEach(int count, Body body) {
+        int parts = Math.min(chunks.length, count);
+        if (parts <= 1) {
+            body.run(0, count);
+            return;
+        }
+        this.body = body;
+        this.count = count;
+        this.parts = parts;
+        for (int i = 1; i < parts; i++) {
+            chunks[i].reinitialize();
+            chunks[i].fork();
+        }
+        try {
+            chunks[0].run();
+        } finally {
+            // Newest first: the calling thread takes back and runs any chunk no worker has
+            // started, so a run never waits on a busy or empty pool
+            for (int i = parts - 1; i > 0; i--) {
+                chunks[i].quietlyJoin();
+            }
+            this.body = null;
+        }
+        for (int i = 1; i < parts; i++) {
+            chunks[i].join();
+        }
+    }
+
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+
+        Chunk(int index) {
+            this.index = index;
+        }
+
+        void run() {
+            body.run((int) ((long) count * index / parts), (int) ((long) count * (index + 1) / parts));
+        }
+
+        @Override
+        protected void compute() {
+            run();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.sim;
+
+public class Platform {
+    public double x, y, width, height;
+
+    public Platform(double x, double y, double width, double height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+}
@@ -1,11 +1,8 @@
-package com.example.demo;
-
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.image.Image;
+package com.example.demo.sim;
 
 public class Player {
     private double x, y;
+    private double prevX, prevY;
     private double velocityX, velocityY;
     // <CHANGE> Separated collision hitbox from visual display size
     // Collision hitbox - tight to actual character body
@@ -52,14 +49,6 @@ public class Player {
     private double jumpHoldTimer = 0;
     private boolean jumpButtonHeld = false;
 
-    private Image playerIdleImage;
-    private Image playerWalk1Image;
-    private Image playerWalk2Image;
-    private Image playerWalk3Image;
-    private Image playerAttackImage;
-    private Image playerJumpImage;
-    private boolean useImage = false;
-
     private boolean isAttacking = false;
     private double attackAnimationTimer = 0;
     private double walkAnimationTimer = 0;
@@ -68,51 +57,16 @@ public class Player {
     public Player(double x, double y) {
         this.x = x;
         this.y = y;
-        loadImages();
+        this.prevX = x;
+        this.prevY = y;
     }
 
-    private void loadImages() {
-        try {
-            playerIdleImage = new Image(getClass().getResourceAsStream("/images/player_idle.png"));
-            useImage = true;
-
-            try {
-                playerWalk1Image = new Image(getClass().getResourceAsStream("/images/player_walk1.png"));
-            } catch (Exception e) {
-                playerWalk1Image = playerIdleImage;
-            }
-
-            try {
-                playerWalk2Image = new Image(getClass().getResourceAsStream("/images/player_walk2.png"));
-            } catch (Exception e) {
-                playerWalk2Image = playerWalk1Image;
-            }
-
-            try {
-                playerWalk3Image = new Image(getClass().getResourceAsStream("/images/player_walk3.png"));
-            } catch (Exception e) {
-                playerWalk3Image = playerWalk2Image;
-            }
-
-            try {
-                playerAttackImage = new Image(getClass().getResourceAsStream("/images/player_attack.png"));
-            } catch (Exception e) {
-                playerAttackImage = playerIdleImage;
-            }
-
-            try {
-                playerJumpImage = new Image(getClass().getResourceAsStream("/images/player_jump.png"));
-            } catch (Exception e) {
-                playerJumpImage = playerIdleImage;
-            }
-
-        } catch (Exception e) {
-            System.out.println("Could not load player images, using default graphics");
-            useImage = false;
-        }
+    public void savePreviousState() {
+        prevX = x;
+        prevY = y;
     }
 
-    public void update(double deltaTime, Platform[] platforms, double screenWidth, double screenHeight) {
+    public void update(double deltaTime, Platform[] platforms, double worldWidth, double worldHeight) {
         if (damageCooldownTimer > 0) {
             damageCooldownTimer -= deltaTime;
         }
@@ -191,20 +145,19 @@ public class Player {
             velocityX *= 0.95;
         }
 
-        x += velocityX * deltaTime;
-        y += velocityY * deltaTime;
+        onGround = false;
+        sweep(velocityX * deltaTime, velocityY * deltaTime, platforms);
 
         if (x < 0) {
             x = 0;
             velocityX = 0;
         }
-        if (x + width > screenWidth) {
-            x = screenWidth - width;
+        if (x + width > worldWidth) {
+            x = worldWidth - width;
             velocityX = 0;
         }
 
-        onGround = false;
-
+        // Anything the player already overlapped before moving is pushed out here
         for (Platform platform : platforms) {
             if (intersects(platform)) {
                 double overlapLeft = (x + width) - platform.x;
@@ -238,6 +191,58 @@ public class Player {
         if (velocityY > 1000) velocityY = 1000;
     }
 
+    /**
+     * Moves by (dx, dy), stopping at the first platform face in the way and sliding along
+     * it for the rest of the move. Landing, bumping a ceiling or hitting a wall has the
+     * same effect as in the overlap resolution in update, however far the move is.
+     */
+    private void sweep(double dx, double dy, Platform[] platforms) {
+        double targetX = x + dx;
+        double targetY = y + dy;
+
+        // One pass per axis: after the first hit only the other axis is still moving
+        for (int pass = 0; pass < 2 && (dx != 0 || dy != 0); pass++) {
+            Platform first = null;
+            double firstTime = Double.POSITIVE_INFINITY;
+            for (Platform platform : platforms) {
+                if (intersects(platform)) continue;
+                double time = Sweep.timeOfImpact(x, y, width, height, dx, dy,
+                        platform.x, platform.y, platform.width, platform.height);
+                if (time != Sweep.MISS && time < firstTime) {
+                    first = platform;
+                    firstTime = time;
+                }
+            }
+            if (first == null) break;
+
+            if (Sweep.entry(x, width, dx, first.x, first.width) > Sweep.entry(y, height, dy, first.y, first.height)) {
+                x = dx > 0 ? first.x - width : first.x + first.width;
+                if (isDashing) isDashing = false;
+                y += dy * firstTime;
+                targetX = x;
+                dx = 0;
+                dy = targetY - y;
+            } else {
+                if (dy > 0) {
+                    y = first.y - height;
+                    onGround = true;
+                    jumpHoldTimer = 0;
+                } else {
+                    y = first.y + first.height;
+                }
+                velocityY = 0;
+                isJumping = false;
+                x += dx * firstTime;
+                targetY = y;
+                dy = 0;
+                dx = targetX - x;
+            }
+        }
+
+        x = targetX;
+        y = targetY;
+    }
+
     private boolean intersects(Platform platform) {
         return x < platform.x + platform.width &&
                 x + width > platform.x &&
@@ -308,79 +313,6 @@ public class Player {
         velocityY = KNOCKBACK_FORCE_Y;
     }
 
-    public void render(GraphicsContext gc) {
-        boolean isInvulnerable = damageCooldownTimer > 0;
-
-        // <CHANGE> Calculate render position to center the larger sprite on the hitbox
-        double renderX = x - (renderWidth - width) / 2;
-        double renderY = y - (renderHeight - height);
-
-        if (isDashing) {
-            gc.setFill(Color.rgb(0, 255, 255, 0.3));
-            gc.fillRect(renderX - 5, renderY - 5, renderWidth + 10, renderHeight + 10);
-        }
-
-        if (isKnockedBack) {
-            gc.setFill(Color.rgb(255, 150, 0, 0.4));
-            gc.fillRect(renderX - 8, renderY - 8, renderWidth + 16, renderHeight + 16);
-        }
-
-        if (useImage && playerIdleImage != null) {
-            gc.save();
-
-            Image currentSprite;
-            if (isAttacking) {
-                currentSprite = playerAttackImage;
-            } else if (!onGround) {
-                currentSprite = playerJumpImage;
-            } else if (movingLeft || movingRight) {
-                // <CHANGE> Added third walk frame to animation cycle
-                if (currentWalkFrame == 0) {
-                    currentSprite = playerWalk1Image;
-                } else if (currentWalkFrame == 1) {
-                    currentSprite = playerWalk2Image;
-                } else {
-                    currentSprite = playerWalk3Image;
-                }
-            } else {
-                currentSprite = playerIdleImage;
-            }
-
-            if (!facingRight) {
-                gc.translate(renderX + renderWidth, renderY);
-                gc.scale(-1, 1);
-                gc.drawImage(currentSprite, 0, 0, renderWidth, renderHeight);
-            } else {
-                gc.drawImage(currentSprite, renderX, renderY, renderWidth, renderHeight);
-            }
-
-            if (isInvulnerable && ((int)(damageCooldownTimer * 10) % 2 == 0)) {
-                gc.setFill(Color.rgb(255, 100, 100, 0.5));
-                if (!facingRight) {
-                    gc.fillRect(0, 0, renderWidth, renderHeight);
-                } else {
-                    gc.fillRect(renderX, renderY, renderWidth, renderHeight);
-                }
-            }
-
-            gc.restore();
-        } else {
-            if (isInvulnerable && ((int)(damageCooldownTimer * 10) % 2 == 0)) {
-                gc.setFill(Color.rgb(255, 100, 100));
-            } else {
-                gc.setFill(Color.WHITE);
-            }
-            gc.fillRect(renderX, renderY, renderWidth, renderHeight);
-
-            gc.setFill(Color.rgb(100, 150, 255));
-            if (facingRight) {
-                gc.fillRect(renderX + renderWidth - 8, renderY + 10, 5, 8);
-            } else {
-                gc.fillRect(renderX + 3, renderY + 10, 5, 8);
-            }
-        }
-    }
-
     public void setMovingLeft(boolean moving) {
         this.movingLeft = moving;
     }
@@ -389,10 +321,82 @@ public class Player {
         this.movingRight = moving;
     }
 
+    /**
+     * Makes this player an exact copy of the other: position, physics, timers and health.
+     */
+    public void copyFrom(Player other) {
+        x = other.x;
+        y = other.y;
+        prevX = other.prevX;
+        prevY = other.prevY;
+        velocityX = other.velocityX;
+        velocityY = other.velocityY;
+        width = other.width;
+        height = other.height;
+        renderWidth = other.renderWidth;
+        renderHeight = other.renderHeight;
+        onGround = other.onGround;
+        movingLeft = other.movingLeft;
+        movingRight = other.movingRight;
+        facingRight = other.facingRight;
+        isDashing = other.isDashing;
+        dashTimer = other.dashTimer;
+        dashCooldownTimer = other.dashCooldownTimer;
+        dashDirection = other.dashDirection;
+        health = other.health;
+        damageCooldownTimer = other.damageCooldownTimer;
+        isKnockedBack = other.isKnockedBack;
+        knockbackTimer = other.knockbackTimer;
+        shootCooldownTimer = other.shootCooldownTimer;
+        isJumping = other.isJumping;
+        jumpHoldTimer = other.jumpHoldTimer;
+        jumpButtonHeld = other.jumpButtonHeld;
+        isAttacking = other.isAttacking;
+        attackAnimationTimer = other.attackAnimationTimer;
+        walkAnimationTimer = other.walkAnimationTimer;
+        currentWalkFrame = other.currentWalkFrame;
+    }
+
+    // Every field that can change during play, in declaration order
+    long checksum(long hash) {
+        hash = Checksum.mix(hash, x);
+        hash = Checksum.mix(hash, y);
+        hash = Checksum.mix(hash, velocityX);
+        hash = Checksum.mix(hash, velocityY);
+        hash = Checksum.mix(hash, onGround);
+        hash = Checksum.mix(hash, movingLeft);
+        hash = Checksum.mix(hash, movingRight);
+        hash = Checksum.mix(hash, facingRight);
+        hash = Checksum.mix(hash, isDashing);
+        hash = Checksum.mix(hash, dashTimer);
+        hash = Checksum.mix(hash, dashCooldownTimer);
+        hash = Checksum.mix(hash, dashDirection);
+        hash = Checksum.mix(hash, health);
+        hash = Checksum.mix(hash, damageCooldownTimer);
+        hash = Checksum.mix(hash, isKnockedBack);
+        hash = Checksum.mix(hash, knockbackTimer);
+        hash = Checksum.mix(hash, shootCooldownTimer);
+        hash = Checksum.mix(hash, isJumping);
+        hash = Checksum.mix(hash, jumpHoldTimer);
+        hash = Checksum.mix(hash, jumpButtonHeld);
+        hash = Checksum.mix(hash, isAttacking);
+        hash = Checksum.mix(hash, attackAnimationTimer);
+        hash = Checksum.mix(hash, walkAnimationTimer);
+        return Checksum.mix(hash, currentWalkFrame);
+    }
+
     public int getHealth() {
         return health;
     }
 
+    public double getPrevX() {
+        return prevX;
+    }
+
+    public double getPrevY() {
+        return prevY;
+    }
+
     public double getX() {
         return x;
     }
@@ -409,6 +413,14 @@ public class Player {
         return height;
     }
 
+    public double getRenderWidth() {
+        return renderWidth;
+    }
+
+    public double getRenderHeight() {
+        return renderHeight;
+    }
+
     public boolean isFacingRight() {
         return facingRight;
     }
@@ -428,4 +440,32 @@ public class Player {
     public double getShootCooldown() {
         return SHOOT_COOLDOWN;
     }
+
+    public boolean isMoving() {
+        return movingLeft || movingRight;
+    }
+
+    public boolean isOnGround() {
+        return onGround;
+    }
+
+    public boolean isDashing() {
+        return isDashing;
+    }
+
+    public boolean isKnockedBack() {
+        return isKnockedBack;
+    }
+
+    public boolean isAttacking() {
+        return isAttacking;
+    }
+
+    public double getDamageCooldownTimer() {
+        return damageCooldownTimer;
+    }
+
+    public int getCurrentWalkFrame() {
+        return currentWalkFrame;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.example.demo.sim;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A level that has been loaded and materialised but not yet installed in a world.
+ * Building one touches nothing shared, so it can happen on any thread; installing it
+ * is just a handful of field assignments.
+ */
+class PreparedLevel {
+    final LevelFile file;
+    final ChunkStreamer streamer;
+    final Platform[] platforms;
+    final Spike[] spikes;
+    final EnemyStore enemies;
+    final Door door;
+    final long prepareNanos;
+
+    private PreparedLevel(LevelFile file, ChunkStreamer streamer, Platform[] platforms, Spike[] spikes,
+                          EnemyStore enemies, Door door, long prepareNanos) {
+        this.file = file;
+        this.streamer = streamer;
+        this.platforms = platforms;
+        this.spikes = spikes;
+        this.enemies = enemies;
+        this.door = door;
+        this.prepareNanos = prepareNanos;
+    }
+
+    /**
+     * Materialises the level, streamed around its spawn point unless mode is OFF, in
+     * which case the whole layout is read at once. startNanos is when the work began, so
+     * opening the file can be counted too.
+     */
+    static PreparedLevel prepare(LevelFile file, StreamingMode mode, double chunkSize, int chunkRadius,
+                                 long startNanos) {
+        Door door = new Door(file.door[0], file.door[1], file.door[2], file.door[3]);
+        if (mode == StreamingMode.OFF) {
+            LevelData data;
+            try {
+                data = file.readLevel();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read level " + file.number, e);
+            }
+            return new PreparedLevel(file, null, data.createPlatforms(), data.createSpikes(),
+                    data.createEnemies(), door, System.nanoTime() - startNanos);
+        }
+
+        ChunkStreamer streamer = new ChunkStreamer(file, chunkSize, chunkRadius, mode == StreamingMode.BACKGROUND);
+        streamer.prime(file.spawnX, file.spawnY);
+        EnemyStore enemies = new EnemyStore();
+        streamer.syncEnemies(enemies);
+        return new PreparedLevel(file, streamer, streamer.collectPlatforms(), streamer.collectSpikes(),
+                enemies, door, System.nanoTime() - startNanos);
+    }
+}
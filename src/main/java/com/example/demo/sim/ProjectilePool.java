@@ -0,0 +1,171 @@
+package com.example.demo.sim;
+
+/**
+ * Fixed-capacity projectile store kept as parallel primitive arrays. Live projectiles
+ * are packed into slots [0, size()); removing one moves the last live projectile into
+ * its slot, so spawning, updating and removing never allocate.
+ */
+public class ProjectilePool {
+    public static final double WIDTH = 12;  // Increased from 8
+    public static final double HEIGHT = 12; // Increased from 8
+    public static final double SPEED = 500;
+
+    private final int capacity;
+    private final double[] x;
+    private final double[] y;
+    private final double[] prevX;
+    private final double[] prevY;
+    private final double[] velocityX;
+    private final double[] velocityY;
+    private int count = 0;
+    private long spawnedCount = 0;
+    private long overflowCount = 0;
+
+    public ProjectilePool(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        x = new double[capacity];
+        y = new double[capacity];
+        prevX = new double[capacity];
+        prevY = new double[capacity];
+        velocityX = new double[capacity];
+        velocityY = new double[capacity];
+    }
+
+    /**
+     * Fires a projectile into the next free slot. Returns false, and counts an overflow,
+     * if every slot is already in use.
+     */
+    public boolean spawn(double startX, double startY, boolean facingRight) {
+        if (count == capacity) {
+            overflowCount++;
+            return false;
+        }
+
+        int i = count++;
+        x[i] = startX;
+        y[i] = startY;
+        prevX[i] = startX;
+        prevY[i] = startY;
+        velocityX[i] = facingRight ? SPEED : -SPEED;
+        velocityY[i] = 0;
+        spawnedCount++;
+        return true;
+    }
+
+    public void savePreviousState() {
+        System.arraycopy(x, 0, prevX, 0, count);
+        System.arraycopy(y, 0, prevY, 0, count);
+    }
+
+    public void update(double deltaTime) {
+        update(0, count, deltaTime);
+    }
+
+    /**
+     * Moves the projectiles in slots [from, to); disjoint ranges can run concurrently.
+     */
+    public void update(int from, int to, double deltaTime) {
+        for (int i = from; i < to; i++) {
+            x[i] += velocityX[i] * deltaTime;
+            y[i] += velocityY[i] * deltaTime;
+        }
+    }
+
+    public boolean isOutOfBounds(int index, double worldWidth) {
+        return x[index] < 0 || x[index] > worldWidth;
+    }
+
+    /**
+     * Frees a slot by moving the last live projectile into it. When removing while
+     * iterating, stay on the same index: it now holds a projectile not yet visited.
+     */
+    public void remove(int index) {
+        int last = --count;
+        if (index != last) {
+            x[index] = x[last];
+            y[index] = y[last];
+            prevX[index] = prevX[last];
+            prevY[index] = prevY[last];
+            velocityX[index] = velocityX[last];
+            velocityY[index] = velocityY[last];
+        }
+    }
+
+    /**
+     * Copies the other pool's live projectiles into this one, which must be at least as
+     * large. The spawn and overflow counters are left alone.
+     */
+    public void copyFrom(ProjectilePool other) {
+        if (capacity < other.count) {
+            throw new IllegalArgumentException("pool of " + capacity + " cannot hold " + other.count + " projectiles");
+        }
+        count = other.count;
+        System.arraycopy(other.x, 0, x, 0, count);
+        System.arraycopy(other.y, 0, y, 0, count);
+        System.arraycopy(other.prevX, 0, prevX, 0, count);
+        System.arraycopy(other.prevY, 0, prevY, 0, count);
+        System.arraycopy(other.velocityX, 0, velocityX, 0, count);
+        System.arraycopy(other.velocityY, 0, velocityY, 0, count);
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    long checksum(long hash) {
+        hash = Checksum.mix(hash, count);
+        for (int i = 0; i < count; i++) {
+            hash = Checksum.mix(hash, x[i]);
+            hash = Checksum.mix(hash, y[i]);
+            hash = Checksum.mix(hash, velocityX[i]);
+            hash = Checksum.mix(hash, velocityY[i]);
+        }
+        return hash;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getPrevX(int index) {
+        return prevX[index];
+    }
+
+    public double getPrevY(int index) {
+        return prevY[index];
+    }
+
+    public double getVelocityX(int index) {
+        return velocityX[index];
+    }
+
+    public double getVelocityY(int index) {
+        return velocityY[index];
+    }
+
+    public long getSpawnedCount() {
+        return spawnedCount;
+    }
+
+    /**
+     * Number of shots dropped because the pool was full.
+     */
+    public long getOverflowCount() {
+        return overflowCount;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.sim;
+
+/**
+ * Everything the renderer needs from one simulation tick, copied out of the {@link World}
+ * so it can be drawn on another thread while the simulation moves on. Player, enemies
+ * and projectiles are copies owned by this state; level geometry is shared with the
+ * world, which never modifies it. Once published through a {@link RenderStateBuffer}
+ * a state is not written again until the reader has let go of it, so readers must
+ * treat everything they get from it as read-only.
+ */
+public final class RenderState {
+    long sequence = -1;
+    private long tickNanos;
+    private long stepNanos = 1;
+    private long inputPressNanos = -1;
+
+    private double width;
+    private double height;
+    private Platform[] platforms;
+    private Spike[] spikes;
+    private Door door;
+    private boolean doorHighlighted;
+    private long levelVersion;
+    private int currentLevel;
+    private boolean gameOver;
+
+    private final Player player = new Player(0, 0);
+    private final EnemyStore enemies = new EnemyStore();
+    private ProjectilePool projectiles;
+    private final EffectEvents effects = new EffectEvents();
+
+    /**
+     * Copies the world as it is after a tick.
+     *
+     * @param tickNanos       System.nanoTime() at which that tick was due
+     * @param stepNanos       length of a tick
+     * @param inputPressNanos arrival time of the oldest key press first applied since the
+     *                        last state the reader saw, or -1
+     */
+    public void capture(World world, long tickNanos, long stepNanos, long inputPressNanos) {
+        this.tickNanos = tickNanos;
+        this.stepNanos = stepNanos;
+        this.inputPressNanos = inputPressNanos;
+
+        width = world.getWidth();
+        height = world.getHeight();
+        platforms = world.getPlatforms();
+        spikes = world.getSpikes();
+        door = world.getDoor();
+        doorHighlighted = door.isHighlighted();
+        levelVersion = world.getLevelVersion();
+        currentLevel = world.getCurrentLevel();
+        gameOver = world.isGameOver();
+
+        player.copyFrom(world.getPlayer());
+        enemies.copyFrom(world.getEnemies());
+        ProjectilePool source = world.getProjectiles();
+        if (projectiles == null || projectiles.getCapacity() != source.getCapacity()) {
+            projectiles = new ProjectilePool(source.getCapacity());
+        }
+        projectiles.copyFrom(source);
+        effects.copyFrom(world.getEffects());
+    }
+
+    /**
+     * Interpolation factor between the previous tick and this one at the given time, in [0, 1].
+     */
+    public double alphaAt(long nanoTime) {
+        return Math.max(0, Math.min(1, (double) (nanoTime - tickNanos) / stepNanos));
+    }
+
+    /**
+     * Increases by one for every state published; -1 before the first.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public long getInputPressNanos() {
+        return inputPressNanos;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public Platform[] getPlatforms() {
+        return platforms;
+    }
+
+    public Spike[] getSpikes() {
+        return spikes;
+    }
+
+    public Door getDoor() {
+        return door;
+    }
+
+    public boolean isDoorHighlighted() {
+        return doorHighlighted;
+    }
+
+    public long getLevelVersion() {
+        return levelVersion;
+    }
+
+    public int getCurrentLevel() {
+        return currentLevel;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public EnemyStore getEnemies() {
+        return enemies;
+    }
+
+    /**
+     * The world's recent visual events as of this state; readers keep track of which
+     * event numbers they have already handled.
+     */
+    public EffectEvents getEffects() {
+        return effects;
+    }
+
+    public ProjectilePool getProjectiles() {
+        return projectiles;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.sim;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands {@link RenderState}s from the simulation thread to the render thread without
+ * locks. The writer fills its own back state and publishes it by swapping it into the
+ * shared slot; the reader swaps its front state for the slot's whenever the slot holds
+ * something newer. The two sides only ever meet in that one atomic swap, so neither
+ * waits for the other, and a published state is never written while it is being read.
+ *
+ * That takes three states rather than two: one being written, one being drawn, and the
+ * latest published one waiting in between.
+ */
+public final class RenderStateBuffer {
+    private final AtomicReference<RenderState> latest = new AtomicReference<>(new RenderState());
+    private RenderState back = new RenderState();  // writer only
+    private RenderState front = new RenderState(); // reader only
+    private long published = -1;                   // writer only
+
+    /**
+     * The state to fill for the next publish. Writer thread only.
+     */
+    public RenderState back() {
+        return back;
+    }
+
+    /**
+     * Publishes the back state. If the state it replaces was never taken by the reader, it
+     * is returned so the writer can carry over anything the reader must not miss; it
+     * also becomes the next back state, so read it before writing into that. Otherwise
+     * returns null. Writer thread only.
+     */
+    public RenderState publish() {
+        back.sequence = ++published;
+        RenderState previous = latest.getAndSet(back);
+        back = previous;
+        return previous.sequence == published - 1 && published > 0 ? previous : null;
+    }
+
+    /**
+     * The newest published state, or an empty one (sequence -1) before the first publish.
+     * Valid until the next call. Reader thread only.
+     */
+    public RenderState latest() {
+        if (latest.get().sequence > front.sequence) {
+            front = latest.getAndSet(front);
+        }
+        return front;
+    }
+}
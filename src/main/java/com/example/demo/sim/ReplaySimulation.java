@@ -0,0 +1,76 @@
+package com.example.demo.sim;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Replays an {@link InputLog} against a fresh world as fast as possible, without a
+ * display, and checks the world's checksum at every checkpoint the log holds. The world
+ * takes the settings the log was recorded with, whatever the system properties say.
+ * Usage: ReplaySimulation log [runs]
+ * Exits with status 1 if any run diverges from the recording.
+ */
+public class ReplaySimulation {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: ReplaySimulation log [runs]");
+            System.exit(2);
+        }
+        byte[] log = Files.readAllBytes(Paths.get(args[0]));
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        System.out.println("recorded with " + new InputLog.Reader(log).getSettings());
+
+        boolean diverged = false;
+        for (int run = 1; run <= runs; run++) {
+            diverged |= !replay(log, run);
+        }
+        if (diverged) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean replay(byte[] log, int run) throws IOException {
+        InputLog.Reader reader = new InputLog.Reader(log);
+        World world = new World();
+        reader.getSettings().apply(world);
+        InputLog.prepare(world);
+
+        long ticks = 0;
+        long checkpoints = 0;
+        long divergedAt = -1;
+        long start = System.nanoTime();
+        while (true) {
+            int record = reader.next();
+            if (record == InputLog.CHECKPOINT || record == InputLog.END) {
+                if (divergedAt < 0 && world.checksum() != reader.getExpectedChecksum()) {
+                    divergedAt = ticks;
+                }
+                if (record == InputLog.END) break;
+                checkpoints++;
+                continue;
+            }
+            world.savePreviousState();
+            world.update(reader.getDelta(), reader.getInput());
+            ticks++;
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("run %d: %d ticks in %.3f s: %.0f ticks/s (%.1f ns/tick)%n",
+                run, ticks, seconds, ticks / seconds, seconds * 1e9 / ticks);
+        System.out.printf("  level %d, health %d, enemies %d, checksum %016x%n",
+                world.getCurrentLevel(), world.getPlayer().getHealth(), world.getEnemies().size(), world.checksum());
+        if (ticks != reader.getEndTicks()) {
+            System.out.printf("  log says %d ticks but holds %d%n", reader.getEndTicks(), ticks);
+            return false;
+        }
+        if (divergedAt >= 0) {
+            System.out.printf("  DIVERGED: checksum mismatch by tick %d (checkpoints every %d ticks)%n",
+                    divergedAt, InputLog.CHECKPOINT_INTERVAL);
+            return false;
+        }
+        System.out.printf("  matches the recording (%d checkpoints and the final state)%n", checkpoints);
+        return true;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.demo.sim;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the world, hashed into buckets so it covers levels of any size
+ * without allocating a cell per grid square. Entities are inserted as boxes, then
+ * {@link #build()} sorts them into buckets; queries only return entities sharing a
+ * cell with the query box.
+ *
+ * The bucket table is sized to the number of occupied cells on each build. Different
+ * cells can land in the same bucket, so results are candidates and callers still do
+ * their exact overlap test. Everything is kept in primitive arrays that are reused
+ * between rebuilds, so a rebuild per tick does not allocate once warmed up.
+ */
+public class SpatialHash {
+    private static final int MIN_BUCKETS = 16;
+
+    private final double cellSize;
+    private int bucketMask = 0;
+
+    // Pending boxes, in cell coordinates
+    private int count = 0;
+    private int[] ids = new int[64];
+    private int[] minCellX = new int[64];
+    private int[] minCellY = new int[64];
+    private int[] maxCellX = new int[64];
+    private int[] maxCellY = new int[64];
+
+    // Built table: bucketStart[b] .. bucketStart[b + 1] index into bucketEntries
+    private int[] bucketStart = new int[1];
+    private int[] bucketEntries = new int[64];
+
+    // Query output, de-duplicated with a per-id stamp
+    private int[] results = new int[64];
+    private int resultCount = 0;
+    private int[] seenStamp = new int[64];
+    private int stamp = 0;
+
+    public SpatialHash(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Adds a box for the next build. Ids are small non-negative ints chosen by the caller,
+     * typically an index into its own entity list.
+     */
+    public void insert(int id, double x, double y, double width, double height) {
+        if (count == ids.length) {
+            int capacity = count * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            minCellX = Arrays.copyOf(minCellX, capacity);
+            minCellY = Arrays.copyOf(minCellY, capacity);
+            maxCellX = Arrays.copyOf(maxCellX, capacity);
+            maxCellY = Arrays.copyOf(maxCellY, capacity);
+        }
+        if (id >= seenStamp.length) {
+            seenStamp = Arrays.copyOf(seenStamp, Math.max(id + 1, seenStamp.length * 2));
+        }
+
+        ids[count] = id;
+        minCellX[count] = cell(x);
+        minCellY[count] = cell(y);
+        maxCellX[count] = cell(x + width);
+        maxCellY[count] = cell(y + height);
+        count++;
+    }
+
+    /**
+     * Sorts the inserted boxes into buckets. Must be called after inserting and before querying.
+     */
+    public void build() {
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += (maxCellX[i] - minCellX[i] + 1) * (maxCellY[i] - minCellY[i] + 1);
+        }
+
+        // About two buckets per occupied cell keeps collisions rare without a huge table
+        int bucketCount = Math.max(MIN_BUCKETS, Integer.highestOneBit(Math.max(total, 1) * 2 - 1) << 1);
+        if (bucketStart.length != bucketCount + 1) {
+            bucketStart = new int[bucketCount + 1];
+        } else {
+            Arrays.fill(bucketStart, 0);
+        }
+        bucketMask = bucketCount - 1;
+
+        int[] start = bucketStart;
+        for (int i = 0; i < count; i++) {
+            for (int cy = minCellY[i]; cy <= maxCellY[i]; cy++) {
+                for (int cx = minCellX[i]; cx <= maxCellX[i]; cx++) {
+                    start[bucket(cx, cy) + 1]++;
+                }
+            }
+        }
+
+        for (int b = 1; b < start.length; b++) {
+            start[b] += start[b - 1];
+        }
+
+        if (bucketEntries.length < total) {
+            bucketEntries = new int[Math.max(total, bucketEntries.length * 2)];
+        }
+
+        // Fill back to front so each bucket ends up in insertion order
+        for (int i = count - 1; i >= 0; i--) {
+            for (int cy = maxCellY[i]; cy >= minCellY[i]; cy--) {
+                for (int cx = maxCellX[i]; cx >= minCellX[i]; cx--) {
+                    int b = bucket(cx, cy) + 1;
+                    bucketEntries[--start[b]] = ids[i];
+                }
+            }
+        }
+        // The fill pass shifted every start down by one bucket; shift back
+        System.arraycopy(start, 1, start, 0, start.length - 1);
+        start[start.length - 1] = total;
+    }
+
+    /**
+     * Collects the ids of every entity sharing a cell with the given box.
+     * Returns how many were found; read them with {@link #getResult(int)}.
+     */
+    public int query(double x, double y, double width, double height) {
+        resultCount = 0;
+        if (++stamp == 0) {
+            Arrays.fill(seenStamp, 0);
+            stamp = 1;
+        }
+
+        int x0 = cell(x);
+        int y0 = cell(y);
+        int x1 = cell(x + width);
+        int y1 = cell(y + height);
+
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                int b = bucket(cx, cy);
+                for (int e = bucketStart[b]; e < bucketStart[b + 1]; e++) {
+                    int id = bucketEntries[e];
+                    if (seenStamp[id] != stamp) {
+                        seenStamp[id] = stamp;
+                        if (resultCount == results.length) {
+                            results = Arrays.copyOf(results, resultCount * 2);
+                        }
+                        results[resultCount++] = id;
+                    }
+                }
+            }
+        }
+        return resultCount;
+    }
+
+    /**
+     * Sweeps a moving box against an entity that might be in its way.
+     */
+    public interface SweepTest {
+        /**
+         * Fraction of the move (0 to 1) at which the box first overlaps the entity, or a
+         * negative value if it doesn't.
+         */
+        double timeOfImpact(int id, double x, double y, double width, double height, double dx, double dy);
+    }
+
+    /**
+     * The entity a box moving by (dx, dy) reaches first, among those sharing a cell with the
+     * area it sweeps; on a tie the lowest id; -1 if none. Unlike {@link #query} this keeps
+     * no state between calls, so once built the grid can be searched from several threads
+     * at once.
+     */
+    public int earliestHit(double x, double y, double width, double height, double dx, double dy, SweepTest test) {
+        int x0 = cell(Math.min(x, x + dx));
+        int y0 = cell(Math.min(y, y + dy));
+        int x1 = cell(Math.max(x, x + dx) + width);
+        int y1 = cell(Math.max(y, y + dy) + height);
+        int first = -1;
+        double firstTime = Double.POSITIVE_INFINITY;
+
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                int b = bucket(cx, cy);
+                for (int e = bucketStart[b]; e < bucketStart[b + 1]; e++) {
+                    int id = bucketEntries[e];
+                    double time = test.timeOfImpact(id, x, y, width, height, dx, dy);
+                    if (time >= 0 && (time < firstTime || (time == firstTime && id < first))) {
+                        first = id;
+                        firstTime = time;
+                    }
+                }
+            }
+        }
+        return first;
+    }
+
+    public int getResult(int index) {
+        return results[index];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private int bucket(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & bucketMask;
+    }
+}
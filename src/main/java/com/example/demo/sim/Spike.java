@@ -0,0 +1,20 @@
+package com.example.demo.sim;
+
+public class Spike {
+    public double x, y, width, height;
+    public static final int SPIKE_COUNT = 5;
+
+    public Spike(double x, double y, double width, double height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public boolean intersects(double px, double py, double pWidth, double pHeight) {
+        return px < x + width &&
+                px + pWidth > x &&
+                py < y + height &&
+                py + pHeight > y;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.demo.sim;
+
+/**
+ * How levels loaded from data are brought in. OFF materialises the whole level at once;
+ * the other modes stream it in chunks around the player (see {@link ChunkStreamer}).
+ * SYNC loads chunks inside the tick that needs them, so runs are reproducible;
+ * BACKGROUND loads them on a separate thread.
+ */
+public enum StreamingMode {
+    OFF,
+    SYNC,
+    BACKGROUND
+}
@@ -0,0 +1,696 @@
+package com.example.demo.sim;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * All game state and rules, with no dependency on JavaFX. The front end feeds it input
+ * and draws whatever it holds; headless runners can step it directly.
+ */
+public class World {
+    private double width;
+    private double height;
+
+    private Player player;
+    private Platform[] platforms;
+    private Spike[] spikes;
+    private Door door;
+    private EnemyStore enemies = new EnemyStore();
+    private ProjectilePool projectiles = new ProjectilePool(Integer.getInteger("sim.maxProjectiles", 1024));
+    // Per-projectile scratch for resolving hits, indexed by pool slot
+    private int[] projectileHits = new int[projectiles.getCapacity()];
+    private boolean[] projectileSpent = new boolean[projectiles.getCapacity()];
+    private final EffectEvents effects = new EffectEvents();
+
+    private CollisionMode collisionMode =
+            CollisionMode.valueOf(System.getProperty("sim.collision", "SPATIAL_HASH").toUpperCase());
+    private SpatialHash enemyGrid = new SpatialHash(
+            Double.parseDouble(System.getProperty("sim.cellSize", "128")));
+    private final SpatialHash.SweepTest enemySweep =
+            (id, x, y, w, h, dx, dy) -> enemies.timeOfImpact(id, x, y, w, h, dx, dy);
+
+    // Parallel mode spreads the per-entity passes over a fork/join pool once there is
+    // enough work (entity count, or pair count for the pairwise scan) to pay for it
+    private boolean parallel = Boolean.getBoolean("sim.parallel");
+    private long parallelThreshold = Long.getLong("sim.parallelThreshold", 4096);
+    private final ParallelRange parallelRange = new ParallelRange();
+    // The parallel passes' loop bodies, made once; they read the tick's step and collision
+    // mode from these fields instead of capturing them, so a tick allocates no lambdas
+    private double stepSeconds;
+    private boolean stepUsesGrid;
+    private final ParallelRange.Body enemyPass = (from, to) -> enemies.update(from, to, stepSeconds);
+    private final ParallelRange.Body projectilePass = (from, to) -> projectiles.update(from, to, stepSeconds);
+    private final ParallelRange.Body hitPass = (from, to) -> findEnemyHits(from, to, stepUsesGrid, stepSeconds);
+
+    private FrameProfiler profiler = new FrameProfiler();
+
+    private StreamingMode streamingMode =
+            StreamingMode.valueOf(System.getProperty("sim.streaming", "BACKGROUND").toUpperCase());
+    private double chunkSize = Double.parseDouble(System.getProperty("sim.chunkSize", "1024"));
+    private int chunkRadius = Integer.getInteger("sim.chunkRadius", 1);
+    private ChunkStreamer streamer;
+
+    // Destination of the door, prepared in the background while the player stands near it
+    private CompletableFuture<PreparedLevel> prefetch;
+    private long transitionCount = 0;
+    private long lastPrefetchNanos = 0;
+    private long lastSwapNanos = 0;
+    private boolean lastTransitionPrefetched = false;
+
+    private int currentLevel = 1;
+    private long levelVersion = 0;
+    private long levelLoadCount = 0;
+    private boolean canEnterDoor = false;
+    private boolean gameOver = false;
+
+    private LevelFile levelFile;
+    private int nextLevel;
+    private double spawnX;
+    private double spawnY;
+
+    // Level 1 as first entered, so restarting is a restore instead of a reload
+    private final WorldSnapshot restartPoint = new WorldSnapshot();
+    private long lastRestoreNanos = 0;
+
+    public World() {
+        loadLevel(1);
+        player = new Player(spawnX, spawnY);
+        saveSnapshot(restartPoint);
+    }
+
+    /**
+     * Loads a shipped level from the classpath; see {@link LevelLoader}.
+     */
+    public void loadLevel(int level) {
+        loadLevel(LevelLoader.open(level));
+    }
+
+    public void loadLevel(LevelData data) {
+        loadLevel(LevelFile.of(data));
+    }
+
+    public void loadLevel(LevelFile file) {
+        install(PreparedLevel.prepare(file, streamingMode, chunkSize, chunkRadius, System.nanoTime()));
+    }
+
+    private void install(PreparedLevel level) {
+        LevelFile file = level.file;
+        levelFile = file;
+        nextLevel = file.nextLevel;
+        spawnX = file.spawnX;
+        spawnY = file.spawnY;
+        streamer = level.streamer;
+        levelLoadCount++;
+        replaceLevel(file.number, file.width, file.height, level.platforms, level.spikes, level.enemies, level.door);
+    }
+
+    /**
+     * Replaces the current level with the given layout. Used for generated worlds such as
+     * the benchmark fixtures, which are never streamed; the door keeps leading wherever
+     * the last loaded level's did.
+     */
+    public void loadLevel(int level, double width, double height,
+                          Platform[] platforms, Spike[] spikes, EnemyStore enemies, Door door) {
+        streamer = null;
+        replaceLevel(level, width, height, platforms, spikes, enemies, door);
+    }
+
+    private void replaceLevel(int level, double width, double height,
+                              Platform[] platforms, Spike[] spikes, EnemyStore enemies, Door door) {
+        currentLevel = level;
+        this.width = width;
+        this.height = height;
+        this.platforms = platforms;
+        this.spikes = spikes;
+        this.door = door;
+        this.enemies = enemies;
+        projectiles.clear();
+        canEnterDoor = false;
+        prefetch = null;
+        levelVersion++;
+    }
+
+    /**
+     * Starts preparing the door's destination on the loader thread, once per level.
+     * Called as soon as the player comes into range of the door.
+     */
+    private void prefetchNextLevel() {
+        int level = nextLevel;
+        StreamingMode mode = streamingMode;
+        double size = chunkSize;
+        int radius = chunkRadius;
+        prefetch = CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            return PreparedLevel.prepare(LevelLoader.open(level), mode, size, radius, start);
+        }, LevelLoader.BACKGROUND);
+    }
+
+    public void enterDoor() {
+        if (!canEnterDoor || gameOver) return;
+
+        long start = System.nanoTime();
+        if (prefetch == null) {
+            prefetchNextLevel();
+        }
+        lastTransitionPrefetched = prefetch.isDone();
+
+        PreparedLevel next;
+        try {
+            // Usually long finished; if not, waiting for it still beats starting over
+            next = prefetch.join();
+        } catch (CompletionException e) {
+            next = PreparedLevel.prepare(LevelLoader.open(nextLevel), streamingMode, chunkSize, chunkRadius, start);
+        }
+
+        install(next);
+        player = new Player(spawnX, spawnY);
+        lastPrefetchNanos = next.prepareNanos;
+        lastSwapNanos = System.nanoTime() - start;
+        transitionCount++;
+    }
+
+    public void shoot() {
+        if (gameOver || !player.canShoot()) return;
+
+        double projectileX = player.isFacingRight() ?
+                player.getX() + player.getWidth() :
+                player.getX() - 15;
+        double projectileY = player.getY() + player.getHeight() / 2 - 7;
+
+        projectiles.spawn(projectileX, projectileY, player.isFacingRight());
+        player.shoot();
+    }
+
+    public void restart() {
+        if (restartPoint.isSaved() && restartPoint.streamingMode == streamingMode) {
+            restoreSnapshot(restartPoint);
+            return;
+        }
+
+        gameOver = false;
+        loadLevel(1);
+        player = new Player(spawnX, spawnY);
+        saveSnapshot(restartPoint);
+    }
+
+    /**
+     * Copies the world's current state into the snapshot, reusing its storage.
+     */
+    public void saveSnapshot(WorldSnapshot snapshot) {
+        snapshot.currentLevel = currentLevel;
+        snapshot.width = width;
+        snapshot.height = height;
+        snapshot.platforms = platforms;
+        snapshot.spikes = spikes;
+        snapshot.door = door;
+        snapshot.levelFile = levelFile;
+        snapshot.nextLevel = nextLevel;
+        snapshot.spawnX = spawnX;
+        snapshot.spawnY = spawnY;
+        snapshot.streamer = streamer;
+        snapshot.streamingMode = streamingMode;
+        if (streamer != null) {
+            streamer.saveState(snapshot.streamerState);
+        }
+
+        snapshot.player.copyFrom(player);
+        snapshot.enemies.copyFrom(enemies);
+        if (snapshot.projectiles == null || snapshot.projectiles.getCapacity() != projectiles.getCapacity()) {
+            snapshot.projectiles = new ProjectilePool(projectiles.getCapacity());
+        }
+        snapshot.projectiles.copyFrom(projectiles);
+        snapshot.canEnterDoor = canEnterDoor;
+        snapshot.gameOver = gameOver;
+        snapshot.saved = true;
+    }
+
+    /**
+     * Puts the world back exactly as it was when the snapshot was saved, which may be on
+     * another level. Any prefetched door destination is dropped and fetched again if
+     * needed, and the level version moves on so renderers rebuild their caches.
+     */
+    public void restoreSnapshot(WorldSnapshot snapshot) {
+        if (!snapshot.saved) {
+            throw new IllegalStateException("snapshot has not been saved");
+        }
+        long start = System.nanoTime();
+
+        currentLevel = snapshot.currentLevel;
+        width = snapshot.width;
+        height = snapshot.height;
+        platforms = snapshot.platforms;
+        spikes = snapshot.spikes;
+        door = snapshot.door;
+        levelFile = snapshot.levelFile;
+        nextLevel = snapshot.nextLevel;
+        spawnX = snapshot.spawnX;
+        spawnY = snapshot.spawnY;
+        streamer = snapshot.streamer;
+        if (streamer != null) {
+            streamer.restoreState(snapshot.streamerState);
+        }
+
+        player.copyFrom(snapshot.player);
+        enemies.copyFrom(snapshot.enemies);
+        projectiles.copyFrom(snapshot.projectiles);
+        canEnterDoor = snapshot.canEnterDoor;
+        gameOver = snapshot.gameOver;
+        prefetch = null;
+        levelVersion++;
+
+        lastRestoreNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Time the last restoreSnapshot took, restarts included.
+     */
+    public long getLastRestoreNanos() {
+        return lastRestoreNanos;
+    }
+
+    public void savePreviousState() {
+        player.savePreviousState();
+        enemies.savePreviousState();
+        projectiles.savePreviousState();
+    }
+
+    public void update(double deltaTime, InputState input) {
+        if (gameOver) {
+            if (input.isRestart()) {
+                restart();
+            }
+            return;
+        }
+        profiler.mark();
+        int healthBefore = player.getHealth();
+
+        // Actions go first, as they did when key handlers called these directly
+        if (input.isShoot()) {
+            shoot();
+        }
+        if (input.isEnterDoor()) {
+            enterDoor();
+        }
+
+        if (streamer != null &&
+                streamer.update(player.getX() + player.getWidth() / 2, player.getY() + player.getHeight() / 2)) {
+            platforms = streamer.collectPlatforms();
+            spikes = streamer.collectSpikes();
+            streamer.syncEnemies(enemies);
+            levelVersion++;
+        }
+        profiler.lap(FrameProfiler.Phase.STREAMING);
+
+        player.setMovingLeft(input.isMoveLeft());
+        player.setMovingRight(input.isMoveRight());
+
+        boolean jumpHeld = input.isJump();
+        player.setJumpButtonHeld(jumpHeld);
+
+        if (jumpHeld) {
+            player.jump();
+        }
+
+        if (input.isDash() && !player.isDashing()) {
+            player.dash();
+            if (player.isDashing()) {
+                effects.add(EffectEvents.DASH_STARTED, player.getX() + player.getWidth() / 2,
+                        player.getY() + player.getHeight() / 2, player.isFacingRight() ? 1 : -1);
+            }
+        }
+        profiler.lap(FrameProfiler.Phase.INPUT);
+
+        player.update(deltaTime, platforms, width, height);
+        profiler.lap(FrameProfiler.Phase.PLAYER);
+
+        boolean useGrid = collisionMode == CollisionMode.SPATIAL_HASH;
+        stepSeconds = deltaTime;
+        stepUsesGrid = useGrid;
+
+        if (runParallel(enemies.size())) {
+            parallelRange.forEach(enemies.size(), enemyPass);
+        } else {
+            enemies.update(deltaTime);
+        }
+        profiler.lap(FrameProfiler.Phase.ENEMIES);
+        if (useGrid) {
+            rebuildEnemyGrid();
+        }
+
+        if (touchesEnemy(useGrid)) {
+            player.takeDamageFromEnemy();
+        }
+        profiler.lap(FrameProfiler.Phase.COLLISION);
+
+        if (runParallel(projectiles.size())) {
+            parallelRange.forEach(projectiles.size(), projectilePass);
+        } else {
+            projectiles.update(deltaTime);
+        }
+        profiler.lap(FrameProfiler.Phase.PROJECTILES);
+        resolveProjectileHits(useGrid, deltaTime);
+
+        enemies.removeDead();
+
+        for (Spike spike : spikes) {
+            if (spike.intersects(player.getX(), player.getY(), player.getWidth(), player.getHeight())) {
+                player.takeDamage(spike.x, spike.y, spike.width);
+            }
+        }
+
+        canEnterDoor = door.isPlayerNearby(player.getX(), player.getY(), player.getWidth(), player.getHeight());
+        if (canEnterDoor && prefetch == null) {
+            prefetchNextLevel();
+        }
+
+        if (player.getHealth() < healthBefore) {
+            effects.add(EffectEvents.PLAYER_DAMAGED, player.getX() + player.getWidth() / 2,
+                    player.getY() + player.getHeight() / 2, 0);
+        }
+        if (player.getHealth() <= 0) {
+            gameOver = true;
+        }
+        profiler.lap(FrameProfiler.Phase.COLLISION);
+    }
+
+    private void rebuildEnemyGrid() {
+        enemyGrid.clear();
+        for (int i = 0; i < enemies.size(); i++) {
+            enemyGrid.insert(i, enemies.getX(i), enemies.getY(i), EnemyStore.WIDTH, EnemyStore.HEIGHT);
+        }
+        enemyGrid.build();
+    }
+
+    private boolean touchesEnemy(boolean useGrid) {
+        double px = player.getX();
+        double py = player.getY();
+        double pw = player.getWidth();
+        double ph = player.getHeight();
+
+        if (!useGrid) {
+            return enemies.firstOverlapping(px, py, pw, ph) >= 0;
+        }
+
+        int candidates = enemyGrid.query(px, py, pw, ph);
+        for (int c = 0; c < candidates; c++) {
+            if (enemies.overlaps(enemyGrid.getResult(c), px, py, pw, ph)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Enemy the moving box reaches first, considering only those sharing a grid cell with
+    // the area it sweeps. Same answer as EnemyStore.firstHit, so both modes agree.
+    private int firstEnemyInGrid(double px, double py, double pw, double ph, double dx, double dy) {
+        return enemyGrid.earliestHit(px, py, pw, ph, dx, dy, enemySweep);
+    }
+
+    // Swept over this tick's move, from where the projectile started the tick to where it is now
+    private int firstEnemyHit(int projectile, boolean useGrid, double deltaTime) {
+        double dx = projectiles.getVelocityX(projectile) * deltaTime;
+        double dy = projectiles.getVelocityY(projectile) * deltaTime;
+        double px = projectiles.getX(projectile) - dx;
+        double py = projectiles.getY(projectile) - dy;
+        return useGrid ?
+                firstEnemyInGrid(px, py, ProjectilePool.WIDTH, ProjectilePool.HEIGHT, dx, dy) :
+                enemies.firstHit(px, py, ProjectilePool.WIDTH, ProjectilePool.HEIGHT, dx, dy);
+    }
+
+    /**
+     * Each projectile kills the first enemy in its path this tick and is used up, so a
+     * projectile can't skip over an enemy however far it moves in a tick. Hits are first
+     * looked up for all projectiles at once, then applied in projectile order; if an
+     * earlier projectile already killed the target this tick, the later one looks again.
+     * The lookup only reads state, so it can run in parallel; applying stays serial and
+     * the outcome is the same either way.
+     */
+    private void resolveProjectileHits(boolean useGrid, double deltaTime) {
+        int count = projectiles.size();
+        long work = useGrid ? count : (long) count * enemies.size();
+
+        if (runParallel(work)) {
+            parallelRange.forEach(count, hitPass);
+        } else {
+            findEnemyHits(0, count, useGrid, deltaTime);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int hit = projectileHits[i];
+            if (hit >= 0 && !enemies.isAlive(hit)) {
+                hit = firstEnemyHit(i, useGrid, deltaTime);
+            }
+
+            if (hit >= 0) {
+                enemies.kill(hit);
+                effects.add(EffectEvents.ENEMY_KILLED, enemies.getX(hit) + EnemyStore.WIDTH / 2,
+                        enemies.getY(hit) + EnemyStore.HEIGHT / 2, Math.signum(projectiles.getVelocityX(i)));
+                if (streamer != null) {
+                    streamer.markDefeated(enemies.getId(hit));
+                }
+                projectileSpent[i] = true;
+            } else {
+                projectileSpent[i] = projectiles.isOutOfBounds(i, width);
+            }
+        }
+
+        // Back to front, so each swap-remove pulls in a projectile we are keeping
+        for (int i = count - 1; i >= 0; i--) {
+            if (projectileSpent[i]) {
+                projectiles.remove(i);
+            }
+        }
+    }
+
+    private void findEnemyHits(int from, int to, boolean useGrid, double deltaTime) {
+        if (useGrid) {
+            for (int i = from; i < to; i++) {
+                projectileHits[i] = firstEnemyHit(i, true, deltaTime);
+            }
+        } else {
+            enemies.firstHits(projectiles, from, to, deltaTime, projectileHits);
+        }
+    }
+
+    private boolean runParallel(long work) {
+        return parallel && work >= parallelThreshold;
+    }
+
+    /**
+     * Fingerprint of everything the rules act on: level, player, enemies and projectiles.
+     * Two worlds fed the same input from the same start agree on it after every tick.
+     */
+    public long checksum() {
+        long hash = Checksum.mix(Checksum.SEED, currentLevel);
+        hash = Checksum.mix(hash, gameOver);
+        hash = Checksum.mix(hash, canEnterDoor);
+        hash = player.checksum(hash);
+        hash = enemies.checksum(hash);
+        return projectiles.checksum(hash);
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public long getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(long parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Shares a profiler with the front end so simulation and rendering phases land in
+     * the same frame records.
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public StreamingMode getStreamingMode() {
+        return streamingMode;
+    }
+
+    /**
+     * Takes effect from the next level load.
+     */
+    public void setStreamingMode(StreamingMode streamingMode) {
+        this.streamingMode = streamingMode;
+    }
+
+    public double getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Takes effect from the next level load; restarting reloads level 1 rather than
+     * restoring it as first entered.
+     */
+    public void setChunkSize(double chunkSize) {
+        if (chunkSize != this.chunkSize) {
+            this.chunkSize = chunkSize;
+            restartPoint.saved = false;
+        }
+    }
+
+    public int getChunkRadius() {
+        return chunkRadius;
+    }
+
+    /**
+     * Takes effect from the next level load, like {@link #setChunkSize}.
+     */
+    public void setChunkRadius(int chunkRadius) {
+        if (chunkRadius != this.chunkRadius) {
+            this.chunkRadius = chunkRadius;
+            restartPoint.saved = false;
+        }
+    }
+
+    /**
+     * Streamer for the current level, or null if it was loaded in one piece.
+     */
+    public ChunkStreamer getStreamer() {
+        return streamer;
+    }
+
+    public CollisionMode getCollisionMode() {
+        return collisionMode;
+    }
+
+    public void setCollisionMode(CollisionMode collisionMode) {
+        this.collisionMode = collisionMode;
+    }
+
+    public double getCellSize() {
+        return enemyGrid.getCellSize();
+    }
+
+    public void setCellSize(double cellSize) {
+        enemyGrid = new SpatialHash(cellSize);
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public Platform[] getPlatforms() {
+        return platforms;
+    }
+
+    public Spike[] getSpikes() {
+        return spikes;
+    }
+
+    public Door getDoor() {
+        return door;
+    }
+
+    public EnemyStore getEnemies() {
+        return enemies;
+    }
+
+    /**
+     * Replaces the projectile pool with an empty one of the given size. The restart
+     * point may hold more projectiles than that, so restarting reloads level 1.
+     */
+    public void setProjectileCapacity(int capacity) {
+        projectiles = new ProjectilePool(capacity);
+        projectileHits = new int[capacity];
+        projectileSpent = new boolean[capacity];
+        restartPoint.saved = false;
+    }
+
+    public ProjectilePool getProjectiles() {
+        return projectiles;
+    }
+
+    /**
+     * Visual events from recent ticks, for particles.
+     */
+    public EffectEvents getEffects() {
+        return effects;
+    }
+
+    /**
+     * Number of levels installed from data, door transitions and full restarts included.
+     * Unlike the level version, streaming and restoring snapshots leave it alone.
+     */
+    public long getLevelLoadCount() {
+        return levelLoadCount;
+    }
+
+    /**
+     * Bumped every time level geometry is replaced, so caches of static scenery know to rebuild.
+     */
+    public long getLevelVersion() {
+        return levelVersion;
+    }
+
+    /**
+     * The last level opened from data, including how long opening it took.
+     */
+    public LevelFile getLevelFile() {
+        return levelFile;
+    }
+
+    /**
+     * Number of times the player has gone through a door.
+     */
+    public long getTransitionCount() {
+        return transitionCount;
+    }
+
+    /**
+     * Time spent loading and materialising the level entered last, off the game thread
+     * when it was prefetched.
+     */
+    public long getLastPrefetchNanos() {
+        return lastPrefetchNanos;
+    }
+
+    /**
+     * Time enterDoor itself took for the last transition, including any wait for an
+     * unfinished prefetch.
+     */
+    public long getLastSwapNanos() {
+        return lastSwapNanos;
+    }
+
+    /**
+     * Whether the last transition found its level already prepared.
+     */
+    public boolean wasLastTransitionPrefetched() {
+        return lastTransitionPrefetched;
+    }
+
+    public int getCurrentLevel() {
+        return currentLevel;
+    }
+
+    public boolean canEnterDoor() {
+        return canEnterDoor;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
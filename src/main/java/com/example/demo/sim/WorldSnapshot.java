@@ -0,0 +1,45 @@
+package com.example.demo.sim;
+
+/**
+ * A copy of everything in a {@link World} that play can change, taken with
+ * {@link World#saveSnapshot} and put back with {@link World#restoreSnapshot}. Player,
+ * enemy and projectile state is copied into storage owned by the snapshot, allocated on
+ * first use and reused afterwards; level geometry is never modified during play, so it
+ * is kept by reference. Saving and restoring are a handful of array copies.
+ */
+public final class WorldSnapshot {
+    // Level: shared with the world, never copied
+    int currentLevel;
+    double width;
+    double height;
+    Platform[] platforms;
+    Spike[] spikes;
+    Door door;
+    LevelFile levelFile;
+    int nextLevel;
+    double spawnX;
+    double spawnY;
+    ChunkStreamer streamer;
+    StreamingMode streamingMode;
+
+    // Play state: copied
+    final ChunkStreamer.State streamerState = new ChunkStreamer.State();
+    final Player player = new Player(0, 0);
+    final EnemyStore enemies = new EnemyStore();
+    ProjectilePool projectiles;
+    boolean canEnterDoor;
+    boolean gameOver;
+
+    boolean saved = false;
+
+    /**
+     * Whether anything has been saved into this snapshot yet.
+     */
+    public boolean isSaved() {
+        return saved;
+    }
+
+    public int getCurrentLevel() {
+        return currentLevel;
+    }
+}
@@ -1,8 +1,10 @@
 module com.example.demo {
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.management;
 
 
     opens com.example.demo to javafx.fxml;
     exports com.example.demo;
-}
\ No newline at end of file
+    exports com.example.demo.sim;
+}
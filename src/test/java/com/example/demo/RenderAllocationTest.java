@@ -0,0 +1,131 @@
+package com.example.demo;
+
+import com.example.demo.sim.InputSnapshot;
+import com.example.demo.sim.Player;
+import com.example.demo.sim.RenderState;
+import com.example.demo.sim.World;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Holds the frame path to zero allocation: a scripted player runs and jumps through the
+ * game, shooting and dashing as often as it can, while every frame is drawn into a real
+ * Canvas, and {@link AllocationGuard} checks each one once warmed up, as
+ * -Drender.allocationGuard does in the game. Frames where the HUD repaints after a kill
+ * or a hit are measured too.
+ *
+ * Runs without a JavaFX application, in its own surefire execution: the pom selects the
+ * software pipeline, the cached layers are copied out with blank images instead of
+ * Canvas.snapshot, and since no pulse ever consumes a canvas's command buffer, it is
+ * emptied where a pulse or snapshot would. The pom also limits the JIT to C1: it has no
+ * escape analysis to hide an allocation, and the VM allocates a little on this thread
+ * when it links code C2 recompiles mid-run.
+ */
+class RenderAllocationTest {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final double STEP = 1.0 / 60;
+    private static final long STEP_NANOS = 1_000_000_000L / 60;
+    private static final int WARMUP_FRAMES = 600;
+    private static final int MEASURED_FRAMES = 3000;
+
+    private final InputSnapshot input = new InputSnapshot();
+    private boolean movingRight = true;
+
+    @Test
+    void framesAllocateNothingAfterWarmup() throws ReflectiveOperationException {
+        AllocationGuard guard = new AllocationGuard(WARMUP_FRAMES, MEASURED_FRAMES);
+        assumeTrue(guard.isSupported(), "per-thread allocation counting is not available");
+
+        Canvas canvas = new Canvas(WIDTH, HEIGHT);
+        WorldRenderer renderer = new WorldRenderer(canvas.getGraphicsContext2D(),
+                guard.excludingSnapshots(RenderAllocationTest::blankSnapshot));
+        World world = new World();
+        RenderState state = new RenderState();
+        // The guard's warmup only starts once a game over has been drawn: the first use of a
+        // colour or string constant allocates, and the bot takes a while to die the first time
+        boolean drewGameOver = false;
+        int guardedFrames = 0;
+        long measuredHudRepaints = 0;
+
+        for (int tick = 0; !guard.isFinished(); tick++) {
+            world.savePreviousState();
+            world.update(STEP, next(world, tick));
+            state.capture(world, tick * STEP_NANOS, STEP_NANOS, -1);
+
+            long staticRebuilds = renderer.getStaticLayer().getRebuildCount();
+            long hudRepaints = renderer.getHudLayer().getRedrawCount();
+            if (drewGameOver) {
+                guard.begin();
+                renderer.render(state, 0.5);
+                guard.end(staticRebuilds != renderer.getStaticLayer().getRebuildCount());
+                if (guardedFrames++ >= WARMUP_FRAMES) {
+                    measuredHudRepaints += renderer.getHudLayer().getRedrawCount() - hudRepaints;
+                }
+            } else {
+                renderer.render(state, 0.5);
+                drewGameOver = state.isGameOver();
+            }
+            consumeCommands(canvas);
+        }
+
+        assertTrue(renderer.getParticleLayer().getParticles().getEmittedCount() > 0, "no particles were drawn");
+        assertTrue(measuredHudRepaints > 0, "the HUD panel never repainted while frames were measured");
+        assertTrue(guard.passed(), guard.getSummary());
+    }
+
+    // Back and forth across the level like the headless simulation's bot, restarting on death,
+    // with shoot held down throughout and a dash each time the last one has recharged, so the
+    // cooldown bars are always moving. Dash is tapped, not held: held against a wall it
+    // restarts every tick and pins the player there.
+    private InputSnapshot next(World world, int tick) {
+        if (world.isGameOver()) {
+            input.setBits(InputSnapshot.RESTART);
+            return input;
+        }
+
+        Player player = world.getPlayer();
+        if (movingRight && player.getX() + player.getWidth() >= world.getWidth() - 1) {
+            movingRight = false;
+        } else if (!movingRight && player.getX() <= 1) {
+            movingRight = true;
+        }
+
+        int bits = (movingRight ? InputSnapshot.MOVE_RIGHT : InputSnapshot.MOVE_LEFT) | InputSnapshot.SHOOT;
+        if (tick % 90 < 20) bits |= InputSnapshot.JUMP;
+        if (tick % 60 == 0) bits |= InputSnapshot.DASH;
+        if (world.canEnterDoor()) bits |= InputSnapshot.ENTER_DOOR;
+        input.setBits(bits);
+        return input;
+    }
+
+    // Takes the commands, as a real snapshot does, but copies out nothing
+    private static WritableImage blankSnapshot(Canvas canvas, SnapshotParameters parameters, WritableImage image) {
+        try {
+            consumeCommands(canvas);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return image != null ? image : new WritableImage((int) canvas.getWidth(), (int) canvas.getHeight());
+    }
+
+    // What a pulse does when it hands the canvas's commands to the renderer. Without it the
+    // buffer only grows, and the context reallocates its state whenever a clear covers the canvas.
+    private static void consumeCommands(Canvas canvas) throws ReflectiveOperationException {
+        Field current = Canvas.class.getDeclaredField("current");
+        current.setAccessible(true);
+        Object buffer = current.get(canvas);
+        if (buffer != null) {
+            Method reset = buffer.getClass().getMethod("reset");
+            reset.invoke(buffer);
+        }
+    }
+}
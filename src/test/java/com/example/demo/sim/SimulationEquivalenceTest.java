@@ -0,0 +1,111 @@
+package com.example.demo.sim;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The world's alternative implementations must not change what happens. The headless
+ * simulation's bot is recorded into an input log under one setting, and the log is
+ * replayed into a world set up as recorded and into one with the alternative, side by
+ * side; their checksums have to agree after every tick.
+ */
+class SimulationEquivalenceTest {
+    private static final double TICK_RATE = 60;
+    private static final double STEP = 1 / TICK_RATE;
+    private static final int TICKS = 20_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void spatialHashMatchesPairwise() throws IOException {
+        assertSameTicks(world -> world.setCollisionMode(CollisionMode.PAIRWISE),
+                world -> world.setCollisionMode(CollisionMode.SPATIAL_HASH));
+    }
+
+    @Test
+    void parallelMatchesSerial() throws IOException {
+        for (CollisionMode mode : CollisionMode.values()) {
+            // A threshold of zero splits every pass, however few entities there are
+            assertSameTicks(world -> {
+                world.setCollisionMode(mode);
+                world.setParallel(false);
+            }, world -> {
+                world.setParallel(true);
+                world.setParallelThreshold(0);
+            });
+        }
+    }
+
+    private void assertSameTicks(Consumer<World> recorded, Consumer<World> alternative) throws IOException {
+        InputLog.Reader reader = new InputLog.Reader(record(recorded));
+        World expected = replayWorld(reader, world -> { });
+        World actual = replayWorld(reader, alternative);
+
+        long ticks = 0;
+        long kills = 0;
+        while (true) {
+            int record = reader.next();
+            if (record == InputLog.END) break;
+            if (record == InputLog.CHECKPOINT) {
+                assertEquals(reader.getExpectedChecksum(), expected.checksum(), "replay diverged from the log");
+                continue;
+            }
+
+            long nextEvent = actual.getEffects().getCount();
+            expected.savePreviousState();
+            expected.update(reader.getDelta(), reader.getInput());
+            actual.savePreviousState();
+            actual.update(reader.getDelta(), reader.getInput());
+            ticks++;
+            assertEquals(expected.checksum(), actual.checksum(), "diverged at tick " + ticks);
+
+            EffectEvents effects = actual.getEffects();
+            for (long event = Math.max(nextEvent, effects.getOldest()); event < effects.getCount(); event++) {
+                if (effects.getType(event) == EffectEvents.ENEMY_KILLED) {
+                    kills++;
+                }
+            }
+        }
+        assertEquals(TICKS, ticks);
+        assertEquals(reader.getExpectedChecksum(), actual.checksum());
+        assertTrue(kills > 0, "no enemy was hit, so collisions went untested");
+    }
+
+    private byte[] record(Consumer<World> settings) throws IOException {
+        World world = new World();
+        settings.accept(world);
+        InputLog.prepare(world);
+
+        Path file = dir.resolve("bot.inp");
+        HeadlessSimulation.ScriptedBot bot = new HeadlessSimulation.ScriptedBot();
+        try (InputLog.Recorder recorder = new InputLog.Recorder(file, world, TICK_RATE)) {
+            for (int i = 0; i < TICKS; i++) {
+                InputSnapshot input = bot.next(world);
+                recorder.record(input, STEP);
+                world.savePreviousState();
+                world.update(STEP, input);
+                recorder.afterTick(world);
+            }
+            recorder.finish(world);
+        }
+        return Files.readAllBytes(file);
+    }
+
+    // A world with the log's settings, then the changes given, from the log's start
+    private static World replayWorld(InputLog.Reader reader, Consumer<World> changes) {
+        World world = new World();
+        reader.getSettings().apply(world);
+        changes.accept(world);
+        InputLog.prepare(world);
+        return world;
+    }
+}